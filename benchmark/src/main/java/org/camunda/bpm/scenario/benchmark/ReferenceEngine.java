@@ -0,0 +1,57 @@
+package org.camunda.bpm.scenario.benchmark;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngines;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.persistence.StrongUuidGenerator;
+import org.camunda.bpm.scenario.ScenarioProcessEnginePlugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory process engines configured like the ones of the test
+ * modules, with or without the {@link ScenarioProcessEnginePlugin}.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ReferenceEngine {
+
+  private static AtomicInteger engines = new AtomicInteger();
+
+  public static ProcessEngine build(boolean plugin) {
+    return build(plugin, null);
+  }
+
+  /**
+   * @param roundTrips counting the statements executed by the engine,
+   * or null in case they should not be counted
+   */
+  public static ProcessEngine build(boolean plugin, RoundTrips roundTrips) {
+    String name = "benchmark-" + engines.incrementAndGet();
+    ProcessEngineConfigurationImpl configuration = (ProcessEngineConfigurationImpl)
+      ProcessEngineConfiguration.createStandaloneInMemProcessEngineConfiguration();
+    configuration.setProcessEngineName(name);
+    String jdbcUrl = "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=1000";
+    if (roundTrips != null) {
+      configuration.setDataSource(roundTrips.dataSource(jdbcUrl));
+    } else {
+      configuration.setJdbcUrl(jdbcUrl);
+    }
+    configuration.setHistory(ProcessEngineConfiguration.HISTORY_AUDIT);
+    configuration.setDatabaseSchemaUpdate(ProcessEngineConfiguration.DB_SCHEMA_UPDATE_TRUE);
+    configuration.setJobExecutorActivate(false);
+    configuration.setIdGenerator(new StrongUuidGenerator());
+    List<ProcessEnginePlugin> plugins = new ArrayList<ProcessEnginePlugin>();
+    if (plugin)
+      plugins.add(new ScenarioProcessEnginePlugin());
+    configuration.setProcessEnginePlugins(plugins);
+    ProcessEngine processEngine = configuration.buildProcessEngine();
+    ProcessEngines.unregister(processEngine);
+    return processEngine;
+  }
+
+}
@@ -0,0 +1,112 @@
+package org.camunda.bpm.scenario.benchmark;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.repository.DeploymentBuilder;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.model.bpmn.builder.AbstractFlowNodeBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the process models scenarios are benchmarked with, scaled
+ * by a single size parameter. Every model starts with the process
+ * definition key returned by {@link #key()}. The {@link ReferenceScenario}
+ * acts at all their waitstates.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public enum ReferenceModels {
+
+  /** A sequence of user tasks */
+  Linear {
+    List<BpmnModelInstance> models(int size) {
+      AbstractFlowNodeBuilder<?, ?> builder = Bpmn.createExecutableProcess(key()).startEvent();
+      for (int i = 1; i <= size; i++) {
+        builder = builder.userTask("UserTask" + i);
+      }
+      return single(builder.endEvent().done());
+    }
+  },
+
+  /** User tasks on parallel branches between a fork and a join */
+  Parallel {
+    List<BpmnModelInstance> models(int size) {
+      AbstractFlowNodeBuilder<?, ?> builder = Bpmn.createExecutableProcess(key()).startEvent()
+        .parallelGateway("Fork").userTask("UserTask1").parallelGateway("Join").endEvent();
+      for (int i = 2; i <= size; i++) {
+        builder = builder.moveToNode("Fork").userTask("UserTask" + i).connectTo("Join");
+      }
+      return single(builder.done());
+    }
+  },
+
+  /** A parallel multi-instance user task */
+  MultiInstance {
+    List<BpmnModelInstance> models(int size) {
+      return single(Bpmn.createExecutableProcess(key()).startEvent()
+        .userTask("UserTask").multiInstance().parallel().cardinality(String.valueOf(size)).multiInstanceDone()
+        .endEvent().done());
+    }
+  },
+
+  /** Call activities calling each other down to a user task */
+  Nested {
+    List<BpmnModelInstance> models(int size) {
+      List<BpmnModelInstance> models = new ArrayList<BpmnModelInstance>();
+      for (int i = 0; i < size; i++) {
+        models.add(Bpmn.createExecutableProcess(key(i)).startEvent()
+          .callActivity("CallActivity").calledElement(key(i + 1)).endEvent().done());
+      }
+      models.add(Bpmn.createExecutableProcess(key(size)).startEvent()
+        .userTask("UserTask").endEvent().done());
+      return models;
+    }
+  },
+
+  /** Timer intermediate events on parallel branches, all due at different times */
+  Timers {
+    List<BpmnModelInstance> models(int size) {
+      AbstractFlowNodeBuilder<?, ?> builder = Bpmn.createExecutableProcess(key()).startEvent()
+        .parallelGateway("Fork").intermediateCatchEvent("Timer1").timerWithDuration("PT1M")
+        .parallelGateway("Join").endEvent();
+      for (int i = 2; i <= size; i++) {
+        builder = builder.moveToNode("Fork").intermediateCatchEvent("Timer" + i)
+          .timerWithDuration("PT" + i + "M").connectTo("Join");
+      }
+      return single(builder.done());
+    }
+  };
+
+  abstract List<BpmnModelInstance> models(int size);
+
+  public String key() {
+    return key(0);
+  }
+
+  String key(int level) {
+    return name() + (level > 0 ? String.valueOf(level) : "");
+  }
+
+  /**
+   * Deploys the models of the size provided - meaning the number of
+   * user tasks, branches, multi-instance elements, nesting levels or
+   * timers - to the engine.
+   */
+  public void deploy(ProcessEngine processEngine, int size) {
+    DeploymentBuilder deployment = processEngine.getRepositoryService().createDeployment();
+    List<BpmnModelInstance> models = models(size);
+    for (int i = 0; i < models.size(); i++) {
+      deployment.addModelInstance(key(i) + ".bpmn", models.get(i));
+    }
+    deployment.deploy();
+  }
+
+  private static List<BpmnModelInstance> single(BpmnModelInstance model) {
+    List<BpmnModelInstance> models = new ArrayList<BpmnModelInstance>();
+    models.add(model);
+    return models;
+  }
+
+}
@@ -0,0 +1,121 @@
+package org.camunda.bpm.scenario.benchmark;
+
+import org.camunda.bpm.scenario.ProcessScenario;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.act.BusinessRuleTaskAction;
+import org.camunda.bpm.scenario.act.ConditionalIntermediateEventAction;
+import org.camunda.bpm.scenario.act.EventBasedGatewayAction;
+import org.camunda.bpm.scenario.act.MessageEndEventAction;
+import org.camunda.bpm.scenario.act.MessageIntermediateCatchEventAction;
+import org.camunda.bpm.scenario.act.MessageIntermediateThrowEventAction;
+import org.camunda.bpm.scenario.act.ReceiveTaskAction;
+import org.camunda.bpm.scenario.act.SendTaskAction;
+import org.camunda.bpm.scenario.act.ServiceTaskAction;
+import org.camunda.bpm.scenario.act.SignalIntermediateCatchEventAction;
+import org.camunda.bpm.scenario.act.TimerIntermediateEventAction;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.delegate.ProcessInstanceDelegate;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.run.Runner;
+
+/**
+ * Scenario acting at every waitstate of the {@link ReferenceModels}:
+ * it completes user tasks, lets timers trigger and runs called process
+ * instances with itself. Implemented instead of mocked, so that the
+ * benchmarks measure the scenario runner rather than the mocks.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ReferenceScenario implements ProcessScenario {
+
+  @Override
+  public UserTaskAction waitsAtUserTask(String activityId) {
+    return new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        task.complete();
+      }
+    };
+  }
+
+  @Override
+  public TimerIntermediateEventAction waitsAtTimerIntermediateEvent(String activityId) {
+    return new TimerIntermediateEventAction() {
+      @Override
+      public void execute(ProcessInstanceDelegate processInstance) {
+      }
+    };
+  }
+
+  @Override
+  public Runner runsCallActivity(String activityId) {
+    return Scenario.use(this);
+  }
+
+  @Override
+  public MessageIntermediateCatchEventAction waitsAtMessageIntermediateCatchEvent(String activityId) {
+    return null;
+  }
+
+  @Override
+  public ReceiveTaskAction waitsAtReceiveTask(String activityId) {
+    return null;
+  }
+
+  @Override
+  public SignalIntermediateCatchEventAction waitsAtSignalIntermediateCatchEvent(String activityId) {
+    return null;
+  }
+
+  @Override
+  public EventBasedGatewayAction waitsAtEventBasedGateway(String activityId) {
+    return null;
+  }
+
+  @Override
+  public ServiceTaskAction waitsAtServiceTask(String activityId) {
+    return null;
+  }
+
+  @Override
+  public SendTaskAction waitsAtSendTask(String activityId) {
+    return null;
+  }
+
+  @Override
+  public MessageIntermediateThrowEventAction waitsAtMessageIntermediateThrowEvent(String activityId) {
+    return null;
+  }
+
+  @Override
+  public MessageEndEventAction waitsAtMessageEndEvent(String activityId) {
+    return null;
+  }
+
+  @Override
+  public BusinessRuleTaskAction waitsAtBusinessRuleTask(String activityId) {
+    return null;
+  }
+
+  @Override
+  public ConditionalIntermediateEventAction waitsAtConditionalIntermediateEvent(String activityId) {
+    return null;
+  }
+
+  @Override
+  public void hasStarted(String activityId) {
+  }
+
+  @Override
+  public void hasFinished(String activityId) {
+  }
+
+  @Override
+  public void hasCompleted(String activityId) {
+  }
+
+  @Override
+  public void hasCanceled(String activityId) {
+  }
+
+}
@@ -0,0 +1,53 @@
+package org.camunda.bpm.scenario.benchmark;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the statements a process engine executes against its
+ * database, by wrapping the engine's data source.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class RoundTrips {
+
+  private AtomicLong count = new AtomicLong();
+
+  public long get() {
+    return count.get();
+  }
+
+  DataSource dataSource(String jdbcUrl) {
+    return proxy(DataSource.class, JdbcConnectionPool.create(jdbcUrl, "sa", ""));
+  }
+
+  private <T> T proxy(final Class<T> type, final Object target) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getName().startsWith("execute"))
+          count.incrementAndGet();
+        Object result;
+        try {
+          result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+          throw e.getCause();
+        }
+        if (result instanceof Connection && method.getReturnType() == Connection.class)
+          return proxy(Connection.class, result);
+        if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType()))
+          return proxy(method.getReturnType().asSubclass(Statement.class), result);
+        return result;
+      }
+    }));
+  }
+
+}
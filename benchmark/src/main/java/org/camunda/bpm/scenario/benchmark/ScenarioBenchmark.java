@@ -0,0 +1,67 @@
+package org.camunda.bpm.scenario.benchmark;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.spi.LogSinks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes complete scenarios with the {@link ReferenceModels}, run e.g.
+ * by 'java -jar benchmark/target/benchmarks.jar ScenarioBenchmark'
+ * after building with the 'camunda-bpm-assert-scenario-benchmarks'
+ * profile.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScenarioBenchmark {
+
+  @Param({"Linear", "Parallel", "MultiInstance", "Nested", "Timers"})
+  public ReferenceModels model;
+
+  @Param({"10", "50"})
+  public int size;
+
+  @Param({"true", "false"})
+  public boolean plugin;
+
+  private ProcessEngine processEngine;
+  private ReferenceScenario scenario = new ReferenceScenario();
+
+  @Setup(Level.Trial)
+  public void setup() {
+    LogSinks.shared(LogSinks.off());
+    processEngine = ReferenceEngine.build(plugin);
+    model.deploy(processEngine, size);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    processEngine.close();
+  }
+
+  @Benchmark
+  public Scenario execute() {
+    return Scenario.run(scenario).startByKey(model.key()).engine(processEngine).execute();
+  }
+
+}
@@ -0,0 +1,163 @@
+package org.camunda.bpm.scenario.impl;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.scenario.benchmark.ReferenceEngine;
+import org.camunda.bpm.scenario.benchmark.ReferenceModels;
+import org.camunda.bpm.scenario.benchmark.ReferenceScenario;
+import org.camunda.bpm.scenario.impl.util.Id;
+import org.camunda.bpm.scenario.impl.util.Log;
+import org.camunda.bpm.scenario.impl.util.Time;
+import org.camunda.bpm.scenario.spi.LogSink;
+import org.camunda.bpm.scenario.spi.LogSinks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the hot paths of a scenario step in isolation. Lives in
+ * the package of the scenario runner in order to reach its internals.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutableBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Ids {
+
+    String uuid = UUID.randomUUID().toString();
+    String number = "4711";
+    Id id = Id.of("0a4d8b2e-cb25-11f1-a8b7-02fc00000001");
+    Id other = Id.of("0a4d8b2f-cb25-11f1-a8b7-02fc00000001");
+
+  }
+
+  @State(Scope.Benchmark)
+  public static class Agenda {
+
+    @Param({"16"})
+    public int size;
+
+    ProcessEngine processEngine;
+    ProcessRunnerImpl runner;
+    List<HistoricActivityInstance> instances;
+    List<Executable> executables = new ArrayList<Executable>();
+
+    @Setup
+    public void setup() {
+      LogSinks.shared(LogSinks.off());
+      processEngine = ReferenceEngine.build(false);
+      ReferenceModels.Parallel.deploy(processEngine, size);
+      ProcessInstance processInstance = processEngine.getRuntimeService()
+        .startProcessInstanceByKey(ReferenceModels.Parallel.key());
+      ReferenceScenario scenario = new ReferenceScenario();
+      ScenarioImpl scenarioImpl = new ScenarioImpl(scenario);
+      scenarioImpl.init(processEngine);
+      runner = new ProcessRunnerImpl(scenarioImpl, scenario);
+      runner.processInstance = processInstance;
+      instances = processEngine.getHistoryService().createHistoricActivityInstanceQuery()
+        .processInstanceId(processInstance.getId()).activityType("userTask").unfinished().list();
+      for (HistoricActivityInstance instance: instances) {
+        executables.add(Executable.Waitstates.newInstance(runner, instance));
+      }
+    }
+
+    @TearDown
+    public void tearDown() {
+      processEngine.close();
+    }
+
+  }
+
+  @State(Scope.Benchmark)
+  public static class Logs {
+
+    @Param({"off", "rendered"})
+    public String sink;
+
+    volatile String message;
+
+    @Setup
+    public void setup() {
+      if ("off".equals(sink)) {
+        LogSinks.shared(LogSinks.off());
+      } else {
+        LogSinks.shared(new LogSink() {
+          @Override
+          public boolean isEnabled(LogSink.Level level) {
+            return true;
+          }
+          @Override
+          public void log(LogSink.Event event) {
+            message = event.getMessage();
+          }
+        });
+      }
+    }
+
+  }
+
+  @State(Scope.Benchmark)
+  public static class Times {
+
+    Date date = new Date();
+
+  }
+
+  @Benchmark
+  public Id parseUuid(Ids ids) {
+    return Id.of(ids.uuid);
+  }
+
+  @Benchmark
+  public Id parseNumber(Ids ids) {
+    return Id.of(ids.number);
+  }
+
+  @Benchmark
+  public int compareIds(Ids ids) {
+    return ids.id.compareTo(ids.other);
+  }
+
+  @Benchmark
+  public List<Executable> first(Agenda agenda) {
+    return Executable.Helpers.first(agenda.executables);
+  }
+
+  @Benchmark
+  public WaitstateExecutable newWaitstate(Agenda agenda) {
+    return Executable.Waitstates.newInstance(agenda.runner, agenda.instances.get(0));
+  }
+
+  @Benchmark
+  public void logActingOn(Logs logs) {
+    Log.Action.ActingOn.log("userTask", "User Task", "UserTask", "Process", "0a4d8b2e-cb25-11f1-a8b7-02fc00000001", null, null);
+  }
+
+  @Benchmark
+  public Date correctTime(Times times) {
+    return Time.correct(times.date);
+  }
+
+}
@@ -0,0 +1,102 @@
+package org.camunda.bpm.scenario.benchmark;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.spi.LogSink;
+import org.camunda.bpm.scenario.spi.LogSinks;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Executes scenarios with the {@link ReferenceModels} at growing sizes
+ * and verifies that the database round trips per step of a scenario
+ * do not grow with the models, but stay within half again as many as
+ * needed at the smallest size. Sizes can be set by the system property
+ * 'org.camunda.bpm.scenario.benchmark.sizes', e.g. '1,10,20,40'. Wall
+ * time and allocations are left to the {@link ScenarioBenchmark}, e.g.
+ * with the 'gc' profiler of JMH.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@RunWith(Parameterized.class)
+public class ScalingTest {
+
+  public static final String SIZES = "org.camunda.bpm.scenario.benchmark.sizes";
+
+  private ReferenceModels model;
+  private boolean plugin;
+
+  private RoundTrips roundTrips = new RoundTrips();
+  private ProcessEngine processEngine;
+  private LogSink sink;
+
+  public ScalingTest(ReferenceModels model, boolean plugin) {
+    this.model = model;
+    this.plugin = plugin;
+  }
+
+  @Parameters(name = "{0}, plugin: {1}")
+  public static Collection<Object[]> parameters() {
+    List<Object[]> parameters = new ArrayList<Object[]>();
+    for (ReferenceModels model: ReferenceModels.values()) {
+      parameters.add(new Object[] { model, true });
+      parameters.add(new Object[] { model, false });
+    }
+    return parameters;
+  }
+
+  @Before
+  public void setup() {
+    sink = LogSinks.shared();
+    LogSinks.shared(LogSinks.off());
+    processEngine = ReferenceEngine.build(plugin, roundTrips);
+  }
+
+  @After
+  public void tearDown() {
+    processEngine.close();
+    LogSinks.shared(sink);
+  }
+
+  @Test
+  public void testScaling() {
+    double bound = -1;
+    for (String size: System.getProperty(SIZES, "1,10,20,40").split(",")) {
+      int n = Integer.parseInt(size.trim());
+      model.deploy(processEngine, n);
+      execute(); // warm up
+      long roundTrips = this.roundTrips.get();
+      int steps = execute().metrics().getSteps();
+      double perStep = (double) (this.roundTrips.get() - roundTrips) / steps;
+      // Without engine events, every runner tracks the history of its
+      // process instance after every step, so with nested call
+      // activities the round trips per step grow with the runners
+      if (!plugin && model == ReferenceModels.Nested)
+        perStep = perStep / n;
+      if (bound < 0)
+        bound = perStep * 3 / 2;
+      assertTrue(String.format("%s round trips per step at size %d exceed %s", perStep, n, bound), perStep <= bound);
+    }
+  }
+
+  private Scenario execute() {
+    ReferenceScenario scenario = new ReferenceScenario();
+    Scenario run = Scenario.run(scenario).startByKey(model.key()).engine(processEngine).execute();
+    ProcessInstance processInstance = run.instances(scenario).get(0);
+    assertNotNull(processEngine.getHistoryService().createHistoricProcessInstanceQuery()
+      .processInstanceId(processInstance.getId()).singleResult().getEndTime());
+    return run;
+  }
+
+}
@@ -58,4 +58,11 @@ public abstract class Scenario {
    */
   public abstract List<ProcessInstance> instances(ProcessScenario scenario);
 
+  /**
+   * Retrieve the metrics of this scenario run.
+   *
+   * @return the totals over all steps executed by this scenario run.
+   */
+  public abstract ScenarioMetrics metrics();
+
 }
@@ -0,0 +1,127 @@
+package org.camunda.bpm.scenario;
+
+import org.camunda.bpm.scenario.run.ProcessRunner.ExecutableRunner;
+
+/**
+ * Budget a scenario run must not exceed, either in total or for all
+ * the steps executed at a single activity. Register it by calling
+ * {@link ExecutableRunner#budget(ScenarioBudget)}, e.g.
+ *
+ * <pre>
+ * Scenario.run(scenario).startByKey("InsuranceApplication")
+ *   .budget(ScenarioBudget.total().maxSteps(20).maxStatements(400))
+ *   .budget(ScenarioBudget.activity("DecideAboutApplication").maxStatements(20))
+ *   .execute();
+ * </pre>
+ *
+ * A scenario run exceeding one of its budgets fails with an assertion
+ * error reporting the metrics exceeding it. Budgets for engine commands
+ * and SQL statements require the process engine to be configured with
+ * the {@link ScenarioProcessEnginePlugin}.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ScenarioBudget {
+
+  private String activityId;
+  private long maxSteps = -1;
+  private long maxCommands = -1;
+  private long maxStatements = -1;
+  private long maxMillis = -1;
+
+  private ScenarioBudget(String activityId) {
+    this.activityId = activityId;
+  }
+
+  /**
+   * @return a new budget for the whole scenario run
+   */
+  public static ScenarioBudget total() {
+    return new ScenarioBudget(null);
+  }
+
+  /**
+   * @param activityId of the activity the budget is meant for
+   * @return a new budget for all the steps executed at the activity
+   */
+  public static ScenarioBudget activity(String activityId) {
+    if (activityId == null)
+      throw new IllegalArgumentException("Activity id must not be null");
+    return new ScenarioBudget(activityId);
+  }
+
+  /**
+   * @param maxSteps maximum number of steps to be executed
+   */
+  public ScenarioBudget maxSteps(long maxSteps) {
+    this.maxSteps = maxSteps;
+    return this;
+  }
+
+  /**
+   * @param maxCommands maximum number of engine commands to be executed
+   */
+  public ScenarioBudget maxCommands(long maxCommands) {
+    this.maxCommands = maxCommands;
+    return this;
+  }
+
+  /**
+   * @param maxStatements maximum number of SQL statements to be executed
+   */
+  public ScenarioBudget maxStatements(long maxStatements) {
+    this.maxStatements = maxStatements;
+    return this;
+  }
+
+  /**
+   * @param maxMillis maximum wall-clock time to be spent in milliseconds
+   */
+  public ScenarioBudget maxMillis(long maxMillis) {
+    this.maxMillis = maxMillis;
+    return this;
+  }
+
+  /**
+   * @return id of the activity the budget is meant for or null in case
+   * it is meant for the whole scenario run
+   */
+  public String getActivityId() {
+    return activityId;
+  }
+
+  /**
+   * @return maximum number of steps or -1 in case of no limit
+   */
+  public long getMaxSteps() {
+    return maxSteps;
+  }
+
+  /**
+   * @return maximum number of engine commands or -1 in case of no limit
+   */
+  public long getMaxCommands() {
+    return maxCommands;
+  }
+
+  /**
+   * @return maximum number of SQL statements or -1 in case of no limit
+   */
+  public long getMaxStatements() {
+    return maxStatements;
+  }
+
+  /**
+   * @return maximum wall-clock time in milliseconds or -1 in case of no
+   * limit
+   */
+  public long getMaxMillis() {
+    return maxMillis;
+  }
+
+  @Override
+  public String toString() {
+    return activityId == null ? "scenario" : "activity '" + activityId + "'";
+  }
+
+}
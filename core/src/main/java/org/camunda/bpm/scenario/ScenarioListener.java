@@ -0,0 +1,23 @@
+package org.camunda.bpm.scenario;
+
+import org.camunda.bpm.scenario.run.ProcessRunner.ExecutableRunner;
+
+/**
+ * Listener notified about every step executed by a scenario run, e.g.
+ * in order to find out whether a slow scenario is slow because of its
+ * actions, the process engine or the scenario runner itself. Register
+ * it by calling {@link ExecutableRunner#listen(ScenarioListener)}.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public interface ScenarioListener {
+
+  /**
+   * Called after every step executed by the scenario run.
+   *
+   * @param step just executed. The object is reused for the steps
+   * following, so copy what you need beyond this call.
+   */
+  void executed(ScenarioMetrics.Step step);
+
+}
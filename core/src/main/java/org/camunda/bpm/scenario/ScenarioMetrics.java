@@ -0,0 +1,116 @@
+package org.camunda.bpm.scenario;
+
+import java.util.Map;
+
+/**
+ * Metrics of a scenario run, summed up over all of its steps. The
+ * time spent in the process engine, the number of engine commands and
+ * the SQL statements executed are just known in case the process
+ * engine is configured with the {@link ScenarioProcessEnginePlugin}.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public interface ScenarioMetrics {
+
+  /**
+   * @return number of steps executed
+   */
+  int getSteps();
+
+  /**
+   * @return milliseconds the simulated time of the scenario moved
+   * forward
+   */
+  long getTimeJump();
+
+  /**
+   * @return nanoseconds of wall-clock time spent, including the time
+   * the scenario runner needed to find the steps to be executed
+   */
+  long getWallNanos();
+
+  /**
+   * @return nanoseconds spent in the actions of the scenario, but not
+   * in the engine commands those actions issued
+   */
+  long getActionNanos();
+
+  /**
+   * @return nanoseconds spent in engine commands or -1 in case the
+   * process engine does not count its commands
+   */
+  long getEngineNanos();
+
+  /**
+   * @return nanoseconds spent neither in the actions of the scenario
+   * nor in engine commands, or in case the process engine does not
+   * count its commands the nanoseconds not spent in scenario actions
+   */
+  long getRunnerNanos();
+
+  /**
+   * The engine's clock is shared by the whole JVM, so scenarios running
+   * in parallel threads wait for each other while working with the
+   * engine: per engine command in case the process engine is configured
+   * with the {@link ScenarioProcessEnginePlugin}, otherwise per step.
+   *
+   * @return nanoseconds spent waiting for the engine's clock while
+   * another scenario worked with the engine, included in the runner nanos
+   */
+  long getClockNanos();
+
+  /**
+   * @return number of engine commands executed or -1 in case the
+   * process engine does not count its commands
+   */
+  long getCommands();
+
+  /**
+   * @return number of SQL statements executed or -1 in case the
+   * process engine does not count its statements
+   */
+  long getStatements();
+
+  /**
+   * @return nanoseconds spent in SQL statements or -1 in case the
+   * process engine does not count its statements
+   */
+  long getStatementNanos();
+
+  /**
+   * Statements executed more than once within a single step, which
+   * often hints at N+1 query patterns: per step the number of times
+   * each of those statements was executed during the step, and in
+   * total those numbers summed up over all steps.
+   *
+   * @return number of executions by statement id, empty in case the
+   * process engine does not count its statements
+   */
+  Map<String, Integer> getRepeatedStatements();
+
+  /**
+   * Metrics of a single step of a scenario run. Its time and commands
+   * include the ones needed to find the step to be executed.
+   */
+  interface Step extends ScenarioMetrics {
+
+    /**
+     * @return type of the step executed, e.g. 'UserTask', 'TimerJob',
+     * 'Continuation' or 'Deferred'
+     */
+    String getType();
+
+    /**
+     * @return id of the activity the step executed at or null in case
+     * the process engine does not tell
+     */
+    String getActivityId();
+
+    /**
+     * @return id of the process instance the step executed at
+     */
+    String getProcessInstanceId();
+
+  }
+
+}
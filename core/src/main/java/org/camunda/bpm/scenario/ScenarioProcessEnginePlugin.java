@@ -0,0 +1,82 @@
+package org.camunda.bpm.scenario;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+import org.camunda.bpm.scenario.impl.engine.ScenarioCommandInterceptor;
+import org.camunda.bpm.scenario.impl.engine.ScenarioHistoryEventHandler;
+import org.camunda.bpm.scenario.impl.engine.ScenarioHistoryLevel;
+import org.camunda.bpm.scenario.impl.engine.ScenarioStatementInterceptor;
+import org.camunda.bpm.scenario.impl.util.Api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optional process engine plugin which lets scenarios learn about
+ * the changes the engine applies to their process instances instead
+ * of polling history and jobs of every process instance involved on
+ * every single step. Register it with the process engine configuration
+ * used by your tests, e.g. in your camunda.cfg.xml:
+ *
+ * <pre>
+ * &lt;property name="processEnginePlugins"&gt;
+ *   &lt;list&gt;
+ *     &lt;bean class="org.camunda.bpm.scenario.ScenarioProcessEnginePlugin" /&gt;
+ *   &lt;/list&gt;
+ * &lt;/property&gt;
+ * </pre>
+ *
+ * Scenarios run against engines without this plugin work just the
+ * same, they are just slower with many process instances involved.
+ * In addition, the plugin counts the commands and SQL statements the
+ * engine executes, so that {@link ScenarioMetrics} can tell engine
+ * work apart from the work of scenario actions and the scenario
+ * runner and point at statements repeated within a single step.
+ *
+ * Engines configured with history level 'none' do not write any
+ * history with this plugin either, but the plugin keeps the activity
+ * instances of running process instances in memory, so that scenarios
+ * can run without the cost of writing history. This needs a Camunda
+ * BPM version supporting custom history levels, so not 7.1.
+ *
+ * Scenarios executed in parallel threads share the engine's clock, as
+ * it is shared by the whole JVM. Without this plugin, they therefore
+ * execute their steps one after the other. With this plugin, they just
+ * wait for each other while the engine executes a command, but act on
+ * and look at their process instances concurrently.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ScenarioProcessEnginePlugin extends AbstractProcessEnginePlugin {
+
+  // whether the history is kept in memory instead of the database
+  private boolean inMemory;
+
+  @Override
+  public void preInit(ProcessEngineConfigurationImpl configuration) {
+    // custom history levels are not known to Camunda BPM 7.1
+    if (Api.feature("org.camunda.bpm.engine.impl.history.HistoryLevel").isSupported())
+      inMemory = ScenarioHistoryLevel.install(configuration);
+    List<CommandInterceptor> interceptors = configuration.getCustomPreCommandInterceptorsTxRequired();
+    if (interceptors == null) {
+      interceptors = new ArrayList<CommandInterceptor>();
+      configuration.setCustomPreCommandInterceptorsTxRequired(interceptors);
+    }
+    interceptors.add(0, new ScenarioCommandInterceptor());
+    interceptors = configuration.getCustomPreCommandInterceptorsTxRequiresNew();
+    if (interceptors == null) {
+      interceptors = new ArrayList<CommandInterceptor>();
+      configuration.setCustomPreCommandInterceptorsTxRequiresNew(interceptors);
+    }
+    interceptors.add(0, new ScenarioCommandInterceptor());
+  }
+
+  @Override
+  public void postInit(ProcessEngineConfigurationImpl configuration) {
+    ScenarioHistoryEventHandler handler = new ScenarioHistoryEventHandler(configuration.getHistoryEventHandler(), inMemory);
+    configuration.getSqlSessionFactory().getConfiguration().addInterceptor(new ScenarioStatementInterceptor(handler));
+    configuration.setHistoryEventHandler(handler);
+  }
+
+}
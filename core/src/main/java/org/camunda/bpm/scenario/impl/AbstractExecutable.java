@@ -1,7 +1,6 @@
 package org.camunda.bpm.scenario.impl;
 
 import org.camunda.bpm.scenario.impl.delegate.AbstractProcessEngineServicesDelegate;
-import org.camunda.bpm.scenario.impl.util.IdComparator;
 
 import java.util.Date;
 
@@ -10,8 +9,6 @@ import java.util.Date;
  */
 public abstract class AbstractExecutable<I> extends AbstractProcessEngineServicesDelegate implements Executable<AbstractExecutable> {
 
-  protected static IdComparator idComparator = new IdComparator();
-
   protected ProcessRunnerImpl runner;
   protected I delegate;
 
@@ -22,6 +19,8 @@ public abstract class AbstractExecutable<I> extends AbstractProcessEngineService
 
   public abstract String getExecutionId();
 
+  public abstract String getActivityId();
+
   protected abstract I getDelegate();
 
   protected abstract Date isExecutableAt();
@@ -30,16 +29,19 @@ public abstract class AbstractExecutable<I> extends AbstractProcessEngineService
   public int compareTo(AbstractExecutable other) {
     assert other != null;
     int compared = isExecutableAt().compareTo(other.isExecutableAt());
-    if (compared == 0) {
-      if (this.getClass().equals(other.getClass())) {
-        return 0;
-      } else if (other instanceof JobExecutable) {
-        return -1;
-      } else {
-        return other instanceof WaitstateExecutable ? -1 : 1;
-      }
+    return compared == 0 ? rank() - other.rank() : compared;
+  }
+
+  // At the same point in time deferred actions are executed first,
+  // then the actions at waitstates and finally the jobs. Executables
+  // of the same rank are further ordered by their subclasses.
+  private int rank() {
+    if (this instanceof DeferredExecutable) {
+      return 0;
+    } else if (this instanceof WaitstateExecutable) {
+      return 1;
     } else {
-      return compared;
+      return 2;
     }
   }
 
@@ -11,4 +11,12 @@ public abstract class AbstractRunner implements Runner {
 
   public abstract List<Executable> next();
 
+  /**
+   * @return true in case the runner will not deliver executables
+   * anymore and does not need to be asked for them again
+   */
+  public boolean hasEnded() {
+    return false;
+  }
+
 }
@@ -2,6 +2,7 @@ package org.camunda.bpm.scenario.impl;
 
 import org.camunda.bpm.engine.history.HistoricActivityInstance;
 import org.camunda.bpm.scenario.defer.Deferred;
+import org.camunda.bpm.scenario.impl.engine.ScenarioHistory;
 import org.camunda.bpm.scenario.impl.util.Log;
 import org.camunda.bpm.scenario.impl.util.Time;
 
@@ -12,13 +13,13 @@ import java.util.Date;
  */
 public class DeferredExecutable extends AbstractExecutable<HistoricActivityInstance> {
 
-  private static int sequence;
-  private Integer id = ++sequence;
+  private Integer id;
   private Date isExecutableAt;
   private Deferred action;
 
   protected DeferredExecutable(ProcessRunnerImpl runner, HistoricActivityInstance instance, String period, Deferred action) {
     super(runner);
+    this.id = ++runner.scenarioExecutor.deferred;
     this.delegate = instance;
     this.isExecutableAt = Time.dateAfter(period);
     this.action = action;
@@ -31,7 +32,7 @@ public class DeferredExecutable extends AbstractExecutable<HistoricActivityInsta
         action.toString(),
         isExecutableAt
     );
-    Deferreds.add(this);
+    runner.deferreds.add(this);
   }
 
   @Override
@@ -39,8 +40,16 @@ public class DeferredExecutable extends AbstractExecutable<HistoricActivityInsta
     return delegate.getExecutionId();
   }
 
+  @Override
+  public String getActivityId() {
+    return delegate.getActivityId();
+  }
+
   @Override
   protected HistoricActivityInstance getDelegate() {
+    ScenarioHistory history = runner.scenarioExecutor.history;
+    if (history != null)
+      return history.unfinished(delegate.getProcessInstanceId(), delegate.getId());
     return getHistoryService().createHistoricActivityInstanceQuery().activityInstanceId(delegate.getId()).unfinished().singleResult();
   }
 
@@ -63,12 +72,18 @@ public class DeferredExecutable extends AbstractExecutable<HistoricActivityInsta
             action.toString(),
             isExecutableAt
         );
-        action.execute();
+        runner.scenarioExecutor.metrics.acting();
+        try {
+          action.execute();
+        } finally {
+          runner.scenarioExecutor.metrics.acted();
+          Time.adopt();
+        }
       } catch (Exception e) {
         throw new RuntimeException(e);
       }
     }
-    Deferreds.remove(this);
+    runner.deferreds.remove(this);
   }
 
   @Override
@@ -1,18 +1,49 @@
 package org.camunda.bpm.scenario.impl;
 
+import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.history.NativeHistoricActivityInstanceQuery;
 import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
 import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.runtime.JobQuery;
+import org.camunda.bpm.scenario.act.Action;
 import org.camunda.bpm.scenario.defer.Deferred;
+import org.camunda.bpm.scenario.impl.engine.ProcessDefinitions;
+import org.camunda.bpm.scenario.impl.engine.ProcessDefinitions.Activity;
+import org.camunda.bpm.scenario.impl.engine.ScenarioHistory;
 import org.camunda.bpm.scenario.impl.job.ContinuationExecutable;
+import org.camunda.bpm.scenario.impl.job.ProvidedJobExecutable;
+import org.camunda.bpm.scenario.impl.job.TimerJobExecutable;
+import org.camunda.bpm.scenario.impl.util.Api;
+import org.camunda.bpm.scenario.impl.waitstate.BusinessRuleTaskExecutable;
+import org.camunda.bpm.scenario.impl.waitstate.CallActivityExecutable;
+import org.camunda.bpm.scenario.impl.waitstate.ConditionalIntermediateEventExecutable;
+import org.camunda.bpm.scenario.impl.waitstate.EventBasedGatewayExecutable;
 import org.camunda.bpm.scenario.impl.waitstate.IgnoredExecutable;
+import org.camunda.bpm.scenario.impl.waitstate.MessageEndEventExecutable;
+import org.camunda.bpm.scenario.impl.waitstate.MessageIntermediateCatchEventExecutable;
+import org.camunda.bpm.scenario.impl.waitstate.MessageIntermediateThrowEventExecutable;
+import org.camunda.bpm.scenario.impl.waitstate.ProvidedWaitstateExecutable;
+import org.camunda.bpm.scenario.impl.waitstate.ReceiveTaskExecutable;
+import org.camunda.bpm.scenario.impl.waitstate.SendTaskExecutable;
+import org.camunda.bpm.scenario.impl.waitstate.ServiceTaskExecutable;
+import org.camunda.bpm.scenario.impl.waitstate.SignalIntermediateCatchEventExecutable;
+import org.camunda.bpm.scenario.impl.waitstate.TimerIntermediateEventExecutable;
+import org.camunda.bpm.scenario.impl.waitstate.UserTaskExecutable;
+import org.camunda.bpm.scenario.spi.ExecutableProvider;
+import org.camunda.bpm.scenario.spi.JobFactory;
+import org.camunda.bpm.scenario.spi.WaitstateFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 /**
  * @author Martin Schimak <martin.schimak@plexiti.com>
@@ -24,133 +55,298 @@ public interface Executable<S> extends Comparable<S> {
 
   class Waitstates {
 
-    static Map<String, String> types = new HashMap<String, String>(); static {
-      types.put("userTask", "UserTaskExecutable");
-      types.put("intermediateSignalCatch", "SignalIntermediateCatchEventExecutable");
-      types.put("intermediateMessageCatch", "MessageIntermediateCatchEventExecutable");
-      types.put("receiveTask", "ReceiveTaskExecutable");
-      types.put("intermediateTimer", "TimerIntermediateEventExecutable");
-      types.put("intermediateConditional", "ConditionalIntermediateEventExecutable");
-      types.put("eventBasedGateway", "EventBasedGatewayExecutable");
-      types.put("callActivity", "CallActivityExecutable");
-      types.put("serviceTask", "ServiceTaskExecutable");
-      types.put("businessRuleTask", "BusinessRuleTaskExecutable");
-      types.put("sendTask", "SendTaskExecutable");
-      types.put("intermediateMessageThrowEvent", "MessageIntermediateThrowEventExecutable");
-      types.put("messageEndEvent", "MessageEndEventExecutable");
-    }
-
-    static WaitstateExecutable newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
-      if (!runner.isExecuted(instance)) {
-        String type = instance.getActivityType();
-        if (types.containsKey(type)) {
-          try {
-            return (WaitstateExecutable) Class.forName(IgnoredExecutable.class.getPackage().getName() + "." + types.get(type)).getConstructor(ProcessRunnerImpl.class, HistoricActivityInstance.class).newInstance(runner, instance);
-          } catch (Exception e) {
-            throw new IllegalArgumentException(e);
+    interface Factory {
+      WaitstateExecutable<?> newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance);
+    }
+
+    // factories of registered providers take precedence, unless they
+    // leave an activity instance to the built-in factories
+    static Map<String, WaitstateFactory> provided = new HashMap<String, WaitstateFactory>();
+    static Map<String, Factory> factories = new HashMap<String, Factory>(); static {
+      factories.put("userTask", new Factory() {
+        @Override
+        public WaitstateExecutable<?> newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
+          return new UserTaskExecutable(runner, instance);
+        }
+      });
+      factories.put("intermediateSignalCatch", new Factory() {
+        @Override
+        public WaitstateExecutable<?> newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
+          return new SignalIntermediateCatchEventExecutable(runner, instance);
+        }
+      });
+      factories.put("intermediateMessageCatch", new Factory() {
+        @Override
+        public WaitstateExecutable<?> newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
+          return new MessageIntermediateCatchEventExecutable(runner, instance);
+        }
+      });
+      factories.put("receiveTask", new Factory() {
+        @Override
+        public WaitstateExecutable<?> newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
+          return new ReceiveTaskExecutable(runner, instance);
+        }
+      });
+      factories.put("intermediateTimer", new Factory() {
+        @Override
+        public WaitstateExecutable<?> newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
+          return new TimerIntermediateEventExecutable(runner, instance);
+        }
+      });
+      factories.put("intermediateConditional", new Factory() {
+        @Override
+        public WaitstateExecutable<?> newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
+          return new ConditionalIntermediateEventExecutable(runner, instance);
+        }
+      });
+      factories.put("eventBasedGateway", new Factory() {
+        @Override
+        public WaitstateExecutable<?> newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
+          return new EventBasedGatewayExecutable(runner, instance);
+        }
+      });
+      factories.put("callActivity", new Factory() {
+        @Override
+        public WaitstateExecutable<?> newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
+          return new CallActivityExecutable(runner, instance);
+        }
+      });
+      // external tasks are not known to Camunda BPM versions before 7.4
+      if (Api.feature("org.camunda.bpm.engine.externaltask.ExternalTask").isSupported()) {
+        factories.put("serviceTask", new Factory() {
+          @Override
+          public WaitstateExecutable<?> newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
+            return new ServiceTaskExecutable(runner, instance);
+          }
+        });
+        factories.put("businessRuleTask", new Factory() {
+          @Override
+          public WaitstateExecutable<?> newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
+            return new BusinessRuleTaskExecutable(runner, instance);
+          }
+        });
+        factories.put("sendTask", new Factory() {
+          @Override
+          public WaitstateExecutable<?> newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
+            return new SendTaskExecutable(runner, instance);
+          }
+        });
+        factories.put("intermediateMessageThrowEvent", new Factory() {
+          @Override
+          public WaitstateExecutable<?> newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
+            return new MessageIntermediateThrowEventExecutable(runner, instance);
+          }
+        });
+        factories.put("messageEndEvent", new Factory() {
+          @Override
+          public WaitstateExecutable<?> newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
+            return new MessageEndEventExecutable(runner, instance);
           }
+        });
+      }
+      for (ExecutableProvider provider: Helpers.providers) {
+        provided.putAll(provider.waitstates());
+      }
+    }
+
+    // Activity instances of flow nodes which never wait for a scenario's
+    // action don't become executables, as far as the BPMN model tells
+    static WaitstateExecutable<?> newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
+      if (!runner.isExecuted(instance)) {
+        WaitstateFactory provider = provided.get(instance.getActivityType());
+        if (provider != null) {
+          Action<HistoricActivityInstance> action = provider.newInstance(runner.engine(), runner.scenario, instance);
+          if (action != null)
+            return new ProvidedWaitstateExecutable(runner, instance, action);
         }
-        return new IgnoredExecutable(runner, instance);
+        Factory factory = factories.get(instance.getActivityType());
+        if (factory != null)
+          return factory.newInstance(runner, instance);
+        Activity activity = ProcessDefinitions.get(runner.engine(), instance.getProcessDefinitionId()).getActivity(instance.getActivityId());
+        return activity == null || activity == Activity.WAITSTATE ? new IgnoredExecutable(runner, instance) : null;
       }
       return null;
     }
 
-    static List<Executable> next(ProcessRunnerImpl runner) {
-      List<HistoricActivityInstance> instances = runner.scenarioExecutor.processEngine
+    static List<HistoricActivityInstance> unfinished(ProcessRunnerImpl runner) {
+      ScenarioHistory history = runner.scenarioExecutor.history;
+      if (history != null)
+        return history.unfinished(runner.processInstance.getId());
+      return runner.scenarioExecutor.processEngine
           .getHistoryService().createHistoricActivityInstanceQuery()
           .processInstanceId(runner.processInstance.getId()).unfinished().list();
-      return Helpers.next(runner, instances);
+    }
+
+    // The query API does not filter activity instances by several process
+    // instance ids, so we use a native query for that
+    static Map<String, List<HistoricActivityInstance>> unfinished(ScenarioImpl scenario, Collection<String> processInstanceIds) {
+      Map<String, List<HistoricActivityInstance>> unfinished = new HashMap<String, List<HistoricActivityInstance>>();
+      if (scenario.history != null) {
+        for (String id: processInstanceIds) {
+          unfinished.put(id, scenario.history.unfinished(id));
+        }
+        return unfinished;
+      }
+      ProcessEngine processEngine = scenario.processEngine;
+      String table = processEngine.getManagementService().getTableName(HistoricActivityInstance.class);
+      for (List<String> ids: Helpers.chunks(processInstanceIds)) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM ").append(table).append(" WHERE PROC_INST_ID_ IN (");
+        for (int i = 0; i < ids.size(); i++) {
+          sql.append(i > 0 ? ", " : "").append("#{id").append(i).append("}");
+        }
+        sql.append(") AND END_TIME_ IS NULL");
+        NativeHistoricActivityInstanceQuery query = processEngine.getHistoryService()
+            .createNativeHistoricActivityInstanceQuery().sql(sql.toString());
+        for (int i = 0; i < ids.size(); i++) {
+          query.parameter("id" + i, ids.get(i));
+        }
+        for (HistoricActivityInstance instance: query.list()) {
+          Helpers.get(unfinished, instance.getProcessInstanceId()).add(instance);
+        }
+      }
+      return unfinished;
     }
 
   }
 
   class Jobs {
 
-    static Map<String, String> types = new HashMap<String, String>(); static {
-      types.put("async-continuation", "ContinuationExecutable");
-      types.put("timer-transition", "TimerJobExecutable");
-      types.put("timer-intermediate-transition", "TimerJobExecutable");
-      types.put("timer-start-event-subprocess", "TimerJobExecutable");
+    interface Factory {
+      JobExecutable newInstance(ProcessRunnerImpl runner, Job job);
     }
 
-    static JobExecutable newInstance(ProcessRunnerImpl runner, Job job) {
-      JobEntity entity = (JobEntity) job;
-      String type = entity.getJobHandlerType();
-      if (types.containsKey(type)) {
-        try {
-          return (JobExecutable) Class.forName(ContinuationExecutable.class.getPackage().getName() + "." + types.get(type)).getConstructor(ProcessRunnerImpl.class, Job.class).newInstance(runner, job);
-        } catch (Exception e) {
-          throw new IllegalArgumentException(e);
+    // factories of registered providers take precedence, unless they
+    // leave a job to the built-in factories
+    static Map<String, JobFactory> provided = new HashMap<String, JobFactory>();
+    static Map<String, Factory> factories = new HashMap<String, Factory>(); static {
+      factories.put("async-continuation", new Factory() {
+        @Override
+        public JobExecutable newInstance(ProcessRunnerImpl runner, Job job) {
+          return new ContinuationExecutable(runner, job);
         }
+      });
+      Factory timer = new Factory() {
+        @Override
+        public JobExecutable newInstance(ProcessRunnerImpl runner, Job job) {
+          return new TimerJobExecutable(runner, job);
+        }
+      };
+      factories.put("timer-transition", timer);
+      factories.put("timer-intermediate-transition", timer);
+      factories.put("timer-start-event-subprocess", timer);
+      for (ExecutableProvider provider: Helpers.providers) {
+        provided.putAll(provider.jobs());
       }
-      return null;
     }
 
-    static List<Executable> next(ProcessRunnerImpl runner) {
-      List<Job> jobs = runner.scenarioExecutor.processEngine.getManagementService()
+    static JobExecutable newInstance(ProcessRunnerImpl runner, Job job) {
+      String type = ((JobEntity) job).getJobHandlerType();
+      JobFactory provider = provided.get(type);
+      if (provider != null) {
+        Action<Job> action = provider.newInstance(runner.engine(), runner.scenario, job);
+        if (action != null)
+          return new ProvidedJobExecutable(runner, job, action);
+      }
+      Factory factory = factories.get(type);
+      return factory != null ? factory.newInstance(runner, job) : null;
+    }
+
+    static List<Job> of(ProcessRunnerImpl runner) {
+      return runner.scenarioExecutor.processEngine.getManagementService()
           .createJobQuery().processInstanceId(runner.processInstance.getId()).list();
-      return Helpers.next(runner, jobs);
+    }
+
+    // Filtering jobs by several process instance ids is not known to
+    // Camunda BPM versions before 7.13, they query once per instance
+    static Map<String, List<Job>> of(ProcessEngine processEngine, Collection<String> processInstanceIds) {
+      Map<String, List<Job>> jobs = new HashMap<String, List<Job>>();
+      if (Api.feature(JobQuery.class.getName(), "processInstanceIds", Set.class).isSupported()) {
+        for (List<String> ids: Helpers.chunks(processInstanceIds)) {
+          for (Job job: processEngine.getManagementService().createJobQuery()
+              .processInstanceIds(new HashSet<String>(ids)).list()) {
+            Helpers.get(jobs, job.getProcessInstanceId()).add(job);
+          }
+        }
+      } else {
+        for (String id: processInstanceIds) {
+          jobs.put(id, processEngine.getManagementService().createJobQuery().processInstanceId(id).list());
+        }
+      }
+      return jobs;
     }
 
   }
 
   class Deferreds {
 
-    private static Map<String, List<DeferredExecutable>> executablesMap = new HashMap<String, List<DeferredExecutable>>();
+    // deferred actions of a runner, ordered by the time they are due
+    // and then by the order in which they were deferred
+    private SortedSet<DeferredExecutable> executables = new TreeSet<DeferredExecutable>();
 
     public static DeferredExecutable newInstance(ProcessRunnerImpl runner, HistoricActivityInstance instance, String period, Deferred action) {
       return new DeferredExecutable(runner, instance, period, action);
     }
 
-    static List<Executable> next(ProcessRunnerImpl runner) {
+    List<Executable> next() {
       List<Executable> e = new ArrayList<Executable>();
-      Collection<List<DeferredExecutable>> executablesCollection = executablesMap.values();
-      for (List<DeferredExecutable> executablesList: executablesCollection) {
-        for (Executable executable: executablesList) {
-          e.add(executable);
-        }
-      }
-      return Helpers.first(e);
+      if (!executables.isEmpty())
+        e.add(executables.first());
+      return e;
     }
 
-    static void add(DeferredExecutable executable) {
-      String id = executable.delegate.getId();
-      if (!executablesMap.containsKey(id))
-        executablesMap.put(id, new ArrayList<DeferredExecutable>());
-      List<DeferredExecutable> e = executablesMap.get(id);
-      e.add(executable);
+    void add(DeferredExecutable executable) {
+      executables.add(executable);
     }
 
-    static void remove(DeferredExecutable executable) {
-      String id = executable.delegate.getId();
-      List<DeferredExecutable> e = executablesMap.get(id);
-      e.remove(executable);
-      if (e.isEmpty())
-        executablesMap.remove(id);
+    void remove(DeferredExecutable executable) {
+      executables.remove(executable);
     }
 
   }
 
   class Helpers {
 
-    static List<Executable> first(List<Executable> executables) {
-      Collections.sort(executables);
-      List<Executable> first = new ArrayList<Executable>();
-      if (!executables.isEmpty())
-        first.add(executables.get(0));
-      return first;
-    }
-
-    static List<Executable> next(ProcessRunnerImpl runner, List instances) {
-      List<Executable> executables = new ArrayList<Executable>();
-      for (Object instance: instances) {
-        Executable executable = instance instanceof Job
-            ? Jobs.newInstance(runner, (Job) instance)
-            : Waitstates.newInstance(runner, (HistoricActivityInstance) instance);
-        if (executable != null)
-          executables.add(executable);
+    static List<ExecutableProvider> providers = new ArrayList<ExecutableProvider>(); static {
+      for (ExecutableProvider provider: ServiceLoader.load(ExecutableProvider.class)) {
+        providers.add(provider);
+      }
+    }
+
+    static List<Executable> first(Collection<? extends Executable> executables) {
+      Executable first = null;
+      for (Executable executable: executables) {
+        if (first == null || executable.compareTo(first) < 0)
+          first = executable;
+      }
+      List<Executable> e = new ArrayList<Executable>();
+      if (first != null)
+        e.add(first);
+      return e;
+    }
+
+    // Databases limit the number of expressions in a list
+    private static final int CHUNK = 500;
+
+    static List<List<String>> chunks(Collection<String> ids) {
+      List<List<String>> chunks = new ArrayList<List<String>>();
+      List<String> chunk = null;
+      for (String id: ids) {
+        if (chunk == null || chunk.size() == CHUNK) {
+          chunk = new ArrayList<String>();
+          chunks.add(chunk);
+        }
+        chunk.add(id);
+      }
+      return chunks;
+    }
+
+    static <T> List<T> get(Map<String, List<T>> map, String key) {
+      List<T> list = map.get(key);
+      if (list == null) {
+        list = new ArrayList<T>();
+        map.put(key, list);
       }
-      return first(executables);
+      return list;
     }
 
   }
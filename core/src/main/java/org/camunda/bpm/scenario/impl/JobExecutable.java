@@ -2,18 +2,33 @@ package org.camunda.bpm.scenario.impl;
 
 import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
 import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.scenario.impl.engine.ProcessDefinitions;
+import org.camunda.bpm.scenario.impl.engine.ScenarioEvents;
+import org.camunda.bpm.scenario.impl.job.ContinuationExecutable;
 import org.camunda.bpm.scenario.impl.util.Api;
+import org.camunda.bpm.scenario.impl.util.Id;
 import org.camunda.bpm.scenario.impl.util.Log;
 import org.camunda.bpm.scenario.impl.util.Log.Action;
 
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
 /**
  * @author Martin Schimak <martin.schimak@plexiti.com>
  */
 public abstract class JobExecutable extends AbstractExecutable<Job> {
 
+  private Id id;
+
   protected JobExecutable(ProcessRunnerImpl runner, Job job) {
     super(runner);
     this.delegate = job;
+    this.id = Id.of(job.getId());
   }
 
   @Override
@@ -21,6 +36,25 @@ public abstract class JobExecutable extends AbstractExecutable<Job> {
     return delegate.getExecutionId();
   }
 
+  // The engine just knows the activity of a job within a command, so
+  // we look it up by the job's definition. Job definitions are not
+  // known to Camunda BPM 7.0.
+  @Override
+  public String getActivityId() {
+    if (!Api.feature(Job.class.getName(), "getJobDefinitionId").isSupported() || delegate.getJobDefinitionId() == null)
+      return null;
+    return ProcessDefinitions.get(runner.engine(), runner.processInstance.getProcessDefinitionId())
+        .getJobActivityId(runner.engine(), delegate.getJobDefinitionId());
+  }
+
+  // Executables are reused as long as the engine keeps their jobs, but
+  // the due date of a job may be changed, which changes its ordering
+  boolean isOutdatedBy(Job job) {
+    Date duedate = delegate.getDuedate();
+    return duedate == null ? job.getDuedate() != null
+        : job.getDuedate() == null || duedate.getTime() != job.getDuedate().getTime();
+  }
+
   @Override
   protected Job getDelegate() {
     return getManagementService().createJobQuery().jobId(delegate.getId()).singleResult();
@@ -34,16 +68,67 @@ public abstract class JobExecutable extends AbstractExecutable<Job> {
   @Override
   public void execute() {
     executeJob();
-    runner.setExecuted();
+    runner.setExecuted(this);
+  }
+
+  // Continuations are due right away, so the ones a job leads to are
+  // executed within the same step, instead of polling all runners and
+  // tracking the history again after every single one of them. Timers
+  // due at the same time are left alone, as waitstates reached by one
+  // of them are acted upon before the next timer fires. With engine
+  // events, the jobs are queried once and then kept up to date with
+  // the jobs each continuation creates and deletes. Executables are
+  // created just once per job, and as continuations are all due right
+  // away, they are executed in the order of their ids.
+  protected void drain() {
+    ScenarioEvents events = runner.scenarioExecutor.events;
+    String processInstanceId = runner.processInstance.getId();
+    Set<String> seen = new HashSet<String>();
+    SortedMap<Id, JobExecutable> continuations = new TreeMap<Id, JobExecutable>();
+    add(continuations, seen, Executable.Jobs.of(runner));
+    while (!continuations.isEmpty()) {
+      JobExecutable next = continuations.remove(continuations.firstKey());
+      if (events == null) {
+        next.executeJob();
+        List<Job> jobs = Executable.Jobs.of(runner);
+        Set<Id> current = new HashSet<Id>();
+        for (Job job: jobs) {
+          current.add(Id.of(job.getId()));
+        }
+        continuations.keySet().retainAll(current);
+        add(continuations, seen, jobs);
+        continue;
+      }
+      events.watchJobs(processInstanceId);
+      try {
+        next.executeJob();
+        for (String id: events.deletedJobs(processInstanceId)) {
+          continuations.remove(Id.of(id));
+        }
+        add(continuations, seen, events.createdJobs(processInstanceId));
+      } finally {
+        events.unwatchJobs(processInstanceId);
+      }
+    }
+  }
+
+  private void add(Map<Id, JobExecutable> continuations, Set<String> seen, List<Job> jobs) {
+    for (Job job: jobs) {
+      if (seen.add(job.getId())) {
+        JobExecutable executable = Executable.Jobs.newInstance(runner, job);
+        if (executable instanceof ContinuationExecutable)
+          continuations.put(executable.id, executable);
+      }
+    }
   }
 
   @Override
   public int compareTo(AbstractExecutable other) {
     int compare = super.compareTo(other);
-    return compare == 0 ? idComparator.compare(delegate.getId(), ((JobExecutable) other).delegate.getId()) : compare;
+    return compare == 0 ? id.compareTo(((JobExecutable) other).id) : compare;
   }
 
-  private void log() {
+  protected void log() {
     JobEntity entity = (JobEntity) delegate;
     String type = entity.getJobHandlerType();
     String config;
@@ -60,7 +145,7 @@ public abstract class JobExecutable extends AbstractExecutable<Job> {
         type,
         config,
         null,
-        getRepositoryService().createProcessDefinitionQuery().processDefinitionId(runner.processInstance.getProcessDefinitionId()).singleResult().getKey(),
+        ProcessDefinitions.get(runner.engine(), runner.processInstance.getProcessDefinitionId()).getKey(),
         runner.processInstance.getId(),
         null,
         null
@@ -3,14 +3,23 @@ package org.camunda.bpm.scenario.impl;
 import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.RuntimeService;
 import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.history.HistoricActivityInstanceQuery;
+import org.camunda.bpm.engine.runtime.Job;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.engine.runtime.ProcessInstantiationBuilder;
 import org.camunda.bpm.scenario.ProcessScenario;
 import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.ScenarioBudget;
+import org.camunda.bpm.scenario.ScenarioListener;
+import org.camunda.bpm.scenario.impl.engine.ProcessDefinitions;
+import org.camunda.bpm.scenario.impl.engine.ScenarioEvents;
+import org.camunda.bpm.scenario.impl.engine.ScenarioHistory;
 import org.camunda.bpm.scenario.impl.util.Api;
-import org.camunda.bpm.scenario.impl.util.IdComparator;
+import org.camunda.bpm.scenario.impl.util.Id;
+import org.camunda.bpm.scenario.impl.util.IdSet;
 import org.camunda.bpm.scenario.impl.util.Log;
 import org.camunda.bpm.scenario.impl.util.Log.Action;
+import org.camunda.bpm.scenario.impl.util.Time;
 import org.camunda.bpm.scenario.impl.waitstate.CallActivityExecutable;
 import org.camunda.bpm.scenario.run.ProcessRunner;
 import org.camunda.bpm.scenario.run.ProcessRunner.ExecutableRunner.StartingByKey;
@@ -21,12 +30,13 @@ import org.camunda.bpm.scenario.run.ProcessStarter;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * @author Martin Schimak <martin.schimak@plexiti.com>
@@ -38,9 +48,35 @@ public class ProcessRunnerImpl extends AbstractRunner implements StartingByKey,
   private Map<String, Object> variables;
   private Map<String, Boolean> fromActivityIds = new HashMap<String, Boolean>();
 
-  private Set<String> executed = new HashSet<String>();
-  private Set<String> started = new HashSet<String>();
-  private Set<String> finished = new HashSet<String>();
+  // ids of activity instances, kept as primitives because long running
+  // loops and multi instance activities produce lots of them
+  private IdSet executed = new IdSet();
+
+  // activity instances of the process instance seen so far, and those
+  // of them already seen as finished
+  private IdSet started = new IdSet();
+  private IdSet finished = new IdSet();
+
+  // engine time when we last tracked the history of the process instance
+  private Date watermark;
+
+  // versions of the process instance as seen by the scenario's engine
+  // events when we last polled for executables and tracked the history
+  private long polled = -1;
+  private long tracked = -1;
+
+  // waitstates and jobs of the process instance in the order of their
+  // execution, kept across steps and just updated with the changes the
+  // engine made to the process instance
+  private SortedSet<AbstractExecutable<?>> agenda = new TreeSet<AbstractExecutable<?>>();
+  // executables of the agenda by activity instance or job id, reused
+  // when updating the agenda as long as they are not executed yet
+  private Map<String, AbstractExecutable<?>> executables = new HashMap<String, AbstractExecutable<?>>();
+  Executable.Deferreds deferreds = new Executable.Deferreds();
+  // whether the agenda was just updated by the scenario for this step
+  private boolean prefetched;
+  // whether the process instance was seen to have ended
+  private boolean ended;
 
   ScenarioImpl scenarioExecutor;
   ProcessScenario scenario;
@@ -104,7 +140,7 @@ public class ProcessRunnerImpl extends AbstractRunner implements StartingByKey,
 
   @Override
   public StartableRunner run(ProcessScenario scenario) {
-    scenarioExecutor.runners.add(new ProcessRunnerImpl(scenarioExecutor, scenario));
+    scenarioExecutor.add(new ProcessRunnerImpl(scenarioExecutor, scenario));
     return scenarioExecutor.toBeStartedBy();
   }
 
@@ -114,6 +150,18 @@ public class ProcessRunnerImpl extends AbstractRunner implements StartingByKey,
     return this;
   }
 
+  @Override
+  public ExecutableRunner listen(ScenarioListener listener) {
+    scenarioExecutor.metrics.listen(listener);
+    return this;
+  }
+
+  @Override
+  public ExecutableRunner budget(ScenarioBudget budget) {
+    scenarioExecutor.metrics.budget(budget);
+    return this;
+  }
+
   @Override
   public Scenario execute() {
     return scenarioExecutor.execute();
@@ -129,9 +177,9 @@ public class ProcessRunnerImpl extends AbstractRunner implements StartingByKey,
 
   public void running(CallActivityExecutable waitstate) {
     this.scenarioExecutor = waitstate.runner.scenarioExecutor;
-    this.scenarioExecutor.runners.add(this);
+    this.scenarioExecutor.add(this);
     this.processInstance = waitstate;
-    processDefinitionKey = engine().getRepositoryService().createProcessDefinitionQuery().processDefinitionId(processInstance.getProcessDefinitionId()).singleResult().getKey();
+    processDefinitionKey = ProcessDefinitions.get(engine(), processInstance.getProcessDefinitionId()).getKey();
     setExecuted();
   }
 
@@ -171,9 +219,16 @@ public class ProcessRunnerImpl extends AbstractRunner implements StartingByKey,
       }
     }
     if (processInstance == null) {
-      this.processInstance = processStarter.start();
+      if (scenarioExecutor.lending)
+        Time.acquire();
+      try {
+        this.processInstance = processStarter.start();
+      } finally {
+        if (scenarioExecutor.lending)
+          Time.release();
+      }
       if (processDefinitionKey == null) {
-        processDefinitionKey = engine().getRepositoryService().createProcessDefinitionQuery().processDefinitionId(processInstance.getProcessDefinitionId()).singleResult().getKey();
+        processDefinitionKey = ProcessDefinitions.get(engine(), processInstance.getProcessDefinitionId()).getKey();
       }
       setExecuted();
     }
@@ -183,31 +238,94 @@ public class ProcessRunnerImpl extends AbstractRunner implements StartingByKey,
   @Override
   public List<Executable> next() {
     run();
+    // timers due in the past move the engine time backwards, possibly
+    // before other runners get the chance to track their history
+    if (watermark != null && Time.get().before(watermark))
+      watermark = Time.get();
+    if (!prefetched && isStale())
+      poll(Executable.Waitstates.unfinished(this), Executable.Jobs.of(this));
+    prefetched = false;
     List<Executable> executables = new ArrayList<Executable>();
-    executables.addAll(Executable.Deferreds.next(this));
-    executables.addAll(Executable.Waitstates.next(this));
-    executables.addAll(Executable.Jobs.next(this));
-    if (executables.isEmpty())
+    executables.addAll(deferreds.next());
+    if (!agenda.isEmpty())
+      executables.add(agenda.first());
+    if (executables.isEmpty() || ended)
       setExecuted();
     return Executable.Helpers.first(executables);
   }
 
+  @Override
+  public boolean hasEnded() {
+    return ended;
+  }
+
+  // The engine changed the process instance since we last polled it
+  // for executables, or we can't know without engine events
+  boolean isStale() {
+    Long version = version();
+    return version == null || version != polled;
+  }
+
+  // Updates the agenda with the waitstates and jobs provided, either
+  // polled by ourselves or prefetched with those of other runners. A
+  // waitstate or job still there since we last polled keeps its place
+  // in the agenda, new ones are inserted and those gone are removed.
+  // Just jobs with a changed due date are replaced by a new executable.
+  void poll(List<HistoricActivityInstance> waitstates, List<Job> jobs) {
+    Long version = version();
+    polled = version != null ? version : -1;
+    Map<String, AbstractExecutable<?>> known = executables;
+    executables = new HashMap<String, AbstractExecutable<?>>();
+    for (HistoricActivityInstance waitstate: waitstates) {
+      AbstractExecutable<?> executable = known.remove(waitstate.getId());
+      if (executable == null) {
+        executable = Executable.Waitstates.newInstance(this, waitstate);
+        if (executable != null)
+          agenda.add(executable);
+      }
+      if (executable != null)
+        executables.put(waitstate.getId(), executable);
+    }
+    for (Job job: jobs) {
+      AbstractExecutable<?> executable = known.remove(job.getId());
+      if (executable != null && ((JobExecutable) executable).isOutdatedBy(job)) {
+        agenda.remove(executable);
+        executable = null;
+      }
+      if (executable == null) {
+        executable = Executable.Jobs.newInstance(this, job);
+        if (executable != null)
+          agenda.add(executable);
+      }
+      if (executable != null)
+        executables.put(job.getId(), executable);
+    }
+    // what is left of the known executables is gone in the meantime
+    for (AbstractExecutable<?> executable: known.values()) {
+      agenda.remove(executable);
+    }
+    // running process instances have at least one unfinished activity
+    // instance or a job
+    ended = waitstates.isEmpty() && jobs.isEmpty();
+  }
+
+  void prefetched(List<HistoricActivityInstance> waitstates, List<Job> jobs) {
+    poll(waitstates != null ? waitstates : Collections.<HistoricActivityInstance>emptyList(),
+        jobs != null ? jobs : Collections.<Job>emptyList());
+    prefetched = true;
+  }
+
   public void setExecuted() {
+    Long version = version();
+    if (version != null && version == tracked)
+      return;
+    tracked = version != null ? version : -1;
     boolean supportsCanceled = Api.feature(HistoricActivityInstance.class.getName(), "isCanceled")
       .warn("Outdated Camunda BPM version used will not allow to use " +
           "'" + ProcessScenario.class.getName().replace('$', '.') +
           ".hasCanceled(String activityId)' and '.hasCompleted(String activityId)' methods.");
-    List<HistoricActivityInstance> instances = scenarioExecutor.processEngine.getHistoryService()
-        .createHistoricActivityInstanceQuery().processInstanceId(processInstance.getId()).list();
-    Collections.sort(instances, new Comparator<HistoricActivityInstance>() {
-      IdComparator idComparator = new IdComparator();
-      @Override
-      public int compare(HistoricActivityInstance instance1, HistoricActivityInstance instance2) {
-        return idComparator.compare(instance1.getId(), instance2.getId());
-      }
-    });
-    for (HistoricActivityInstance instance: instances) {
-      if (!started.contains(instance.getId())) {
+    for (HistoricActivityInstance instance: track()) {
+      if (started.add(instance.getId())) {
         Log.Action.Started.log(
             instance.getActivityType(),
             instance.getActivityName(),
@@ -218,9 +336,8 @@ public class ProcessRunnerImpl extends AbstractRunner implements StartingByKey,
             null
         );
         scenario.hasStarted(instance.getActivityId());
-        started.add(instance.getId());
       }
-      if (instance.getEndTime() != null && !finished.contains(instance.getId())) {
+      if (instance.getEndTime() != null && finished.add(instance.getId())) {
         scenario.hasFinished(instance.getActivityId());
         if (supportsCanceled) {
           if (instance.isCanceled()) {
@@ -257,13 +374,61 @@ public class ProcessRunnerImpl extends AbstractRunner implements StartingByKey,
               null
           );
         }
-        finished.add(instance.getId());
       }
     }
   }
 
+  // Fetches the activity instances started or ended since we last
+  // tracked the history, ordered by their ids. With engine events we
+  // know them in the state last seen, otherwise we look at those
+  // started or ended since the engine time we last tracked. As the
+  // time does not move on while the engine works, we need to include
+  // that very time - and a second before in case the database stores
+  // less precise times. Scenarios moving the engine time backwards
+  // lower that watermark before we track again, see next().
+  private List<HistoricActivityInstance> track() {
+    Map<Id, HistoricActivityInstance> changed = new TreeMap<Id, HistoricActivityInstance>();
+    ScenarioEvents events = scenarioExecutor.events;
+    ScenarioHistory history = scenarioExecutor.history;
+    if (events != null) {
+      // The events know everything which happened since the scenario
+      // started, the history what is still unfinished from before
+      List<HistoricActivityInstance> seen = events.activityInstances(processInstance.getId());
+      if (watermark == null)
+        add(changed, history != null ? history.unfinished(processInstance.getId()) : query().list());
+      add(changed, seen);
+    } else if (watermark == null) {
+      add(changed, query().list());
+    } else {
+      Date since = new Date(Math.min(watermark.getTime(), Time.get().getTime()) - 1000);
+      add(changed, query().startedAfter(since).list());
+      add(changed, query().finishedAfter(since).list());
+    }
+    watermark = Time.get();
+    return new ArrayList<HistoricActivityInstance>(changed.values());
+  }
+
+  private HistoricActivityInstanceQuery query() {
+    return scenarioExecutor.processEngine.getHistoryService()
+        .createHistoricActivityInstanceQuery().processInstanceId(processInstance.getId());
+  }
+
+  private void add(Map<Id, HistoricActivityInstance> changed, List<HistoricActivityInstance> list) {
+    for (HistoricActivityInstance instance: list) {
+      changed.put(Id.of(instance.getId()), instance);
+    }
+  }
+
   public void setExecuted(WaitstateExecutable waitstate) {
     executed.add(waitstate.historicDelegate.getId());
+    executables.remove(waitstate.historicDelegate.getId());
+    agenda.remove(waitstate);
+    setExecuted();
+  }
+
+  public void setExecuted(JobExecutable job) {
+    executables.remove(job.delegate.getId());
+    agenda.remove(job);
     setExecuted();
   }
 
@@ -271,4 +436,11 @@ public class ProcessRunnerImpl extends AbstractRunner implements StartingByKey,
     return executed.contains(instance.getId());
   }
 
+  // Without engine events we can't know whether the engine changed
+  // our process instance, so we need to look at it every time.
+  private Long version() {
+    ScenarioEvents events = scenarioExecutor.events;
+    return events != null ? events.version(processInstance.getId()) : null;
+  }
+
 }
@@ -1,50 +1,146 @@
 package org.camunda.bpm.scenario.impl;
 
 import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
 import org.camunda.bpm.engine.ProcessEngines;
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.runtime.Job;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.scenario.ProcessScenario;
 import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.ScenarioMetrics;
+import org.camunda.bpm.scenario.impl.engine.ScenarioCommandInterceptor;
+import org.camunda.bpm.scenario.impl.engine.ScenarioEvents;
+import org.camunda.bpm.scenario.impl.engine.ScenarioHistory;
 import org.camunda.bpm.scenario.impl.util.Log;
 import org.camunda.bpm.scenario.impl.util.Log.Action;
 import org.camunda.bpm.scenario.impl.util.Time;
 import org.camunda.bpm.scenario.run.ProcessRunner.StartableRunner;
+import org.camunda.bpm.scenario.spi.ProcessEngineProvider;
 
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.ServiceLoader;
 
 /**
  * @author Martin Schimak <martin.schimak@plexiti.com>
  */
 public class ScenarioImpl extends Scenario {
 
+  private static List<ProcessEngineProvider> providers = new ArrayList<ProcessEngineProvider>(); static {
+    for (ProcessEngineProvider provider: ServiceLoader.load(ProcessEngineProvider.class)) {
+      providers.add(provider);
+    }
+  }
+
   private boolean executed;
 
+  // number of steps executed so far, waitstates reload their runtime
+  // delegates once per step
+  int step;
+
   ProcessEngine processEngine;
+  ScenarioEvents events;
+  // the engine's in-memory history, in case it does not write any
+  ScenarioHistory history;
+  ScenarioMetricsImpl metrics = new ScenarioMetricsImpl();
+  // whether the engine's clock needs to be lent to this scenario for
+  // whole steps, as the engine does not lend it per command
+  boolean lending;
+  // number of actions deferred so far, orders deferred actions due
+  // at the same time
+  int deferred;
+  // all runners in the order they were added, and those not yet ended
   List<AbstractRunner> runners = new ArrayList<AbstractRunner>();
+  List<AbstractRunner> active = new ArrayList<AbstractRunner>();
 
   public ScenarioImpl(ProcessScenario scenario) {
-    this.runners.add(new ProcessRunnerImpl(this, scenario));
+    add(new ProcessRunnerImpl(this, scenario));
+  }
+
+  void add(AbstractRunner runner) {
+    runners.add(runner);
+    active.add(runner);
   }
 
   protected Scenario execute() {
     init();
     Time.init();
-    List<Executable> executables;
-    do {
-      executables = new ArrayList<Executable>();
-      for (AbstractRunner runner: runners) {
-        executables.addAll(runner.next());
-      }
-      executables = Executable.Helpers.first(executables);
-      if (!executables.isEmpty())
-        executables.get(0).execute();
-    } while (!executables.isEmpty());
+    events = ScenarioEvents.subscribe(processEngine);
+    history = events != null ? events.history() : null;
+    lending = !ScenarioCommandInterceptor.isInstalled(processEngine);
+    metrics.init(processEngine);
+    try {
+      if (history == null && isHistoryNone())
+        throw new IllegalStateException("Scenarios need to look at the history of their process instances. " +
+            "Please use a history level other than 'none' or register the ScenarioProcessEnginePlugin " +
+            "with your process engine configuration, which keeps that history in memory.");
+      List<Executable> executables;
+      do {
+        metrics.polling();
+        prefetch();
+        executables = new ArrayList<Executable>();
+        for (Iterator<AbstractRunner> i = active.iterator(); i.hasNext();) {
+          AbstractRunner runner = i.next();
+          executables.addAll(runner.next());
+          if (runner.hasEnded())
+            i.remove();
+        }
+        executables = Executable.Helpers.first(executables);
+        if (!executables.isEmpty()) {
+          step++;
+          metrics.executing(executables.get(0));
+          if (lending)
+            Time.acquire();
+          try {
+            executables.get(0).execute();
+          } finally {
+            if (lending)
+              Time.release();
+          }
+          metrics.executed();
+        } else {
+          metrics.polled();
+        }
+      } while (!executables.isEmpty());
+    } finally {
+      if (events != null)
+        events.unsubscribe();
+    }
     Time.reset();
+    metrics.verify();
     return this;
   }
 
+  private boolean isHistoryNone() {
+    return processEngine instanceof ProcessEngineImpl && ProcessEngineConfiguration.HISTORY_NONE
+        .equalsIgnoreCase(((ProcessEngineImpl) processEngine).getProcessEngineConfiguration().getHistory());
+  }
+
+  // Runners which need to look at their process instances again get
+  // their waitstates and jobs with a few queries for all of them
+  private void prefetch() {
+    Map<String, ProcessRunnerImpl> stale = new LinkedHashMap<String, ProcessRunnerImpl>();
+    for (AbstractRunner runner: active) {
+      if (runner instanceof ProcessRunnerImpl) {
+        ProcessRunnerImpl processRunner = (ProcessRunnerImpl) runner;
+        if (processRunner.processInstance != null && processRunner.isStale())
+          stale.put(processRunner.processInstance.getId(), processRunner);
+      }
+    }
+    if (stale.size() > 1) {
+      Map<String, List<HistoricActivityInstance>> waitstates = Executable.Waitstates.unfinished(this, stale.keySet());
+      Map<String, List<Job>> jobs = Executable.Jobs.of(processEngine, stale.keySet());
+      for (Map.Entry<String, ProcessRunnerImpl> runner: stale.entrySet()) {
+        runner.getValue().prefetched(waitstates.get(runner.getKey()), jobs.get(runner.getKey()));
+      }
+    }
+  }
+
   @Override
   public ProcessInstance instance(ProcessScenario scenario) {
     List<ProcessInstance> instances = instances(scenario);
@@ -67,11 +163,20 @@ public class ScenarioImpl extends Scenario {
     return instances;
   }
 
+  @Override
+  public ScenarioMetrics metrics() {
+    return metrics;
+  }
+
   protected void init() {
     if (executed)
       throw new IllegalStateException("Scenarios may use execute() just once per Scenario.run(). " +
           "Please create a new Scenario.run().");
     executed = true;
+    for (ProcessEngineProvider provider: providers) {
+      if (processEngine == null)
+        processEngine = provider.processEngine();
+    }
     if (processEngine == null) {
       Map<String, ProcessEngine> processEngines = ProcessEngines.getProcessEngines();
       if (processEngines.size() == 1) {
@@ -0,0 +1,311 @@
+package org.camunda.bpm.scenario.impl;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.scenario.ScenarioBudget;
+import org.camunda.bpm.scenario.ScenarioListener;
+import org.camunda.bpm.scenario.ScenarioMetrics;
+import org.camunda.bpm.scenario.ScenarioProcessEnginePlugin;
+import org.camunda.bpm.scenario.impl.engine.ScenarioCommandInterceptor;
+import org.camunda.bpm.scenario.impl.engine.ScenarioCommandInterceptor.Counter;
+import org.camunda.bpm.scenario.impl.util.Time;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Measures the steps of a scenario run, notifies the listeners about
+ * every step, sums the steps up and verifies the budgets of the run.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ScenarioMetricsImpl implements ScenarioMetrics {
+
+  int steps;
+  long timeJump;
+  long wallNanos;
+  long actionNanos;
+  long engineNanos;
+  long clockNanos;
+  long commands;
+  long statements;
+  long statementNanos;
+  Map<String, Integer> repeatedStatements = new TreeMap<String, Integer>();
+
+  private List<ScenarioListener> listeners = new ArrayList<ScenarioListener>();
+  private List<ScenarioBudget> budgets = new ArrayList<ScenarioBudget>();
+  // sums by activity id, just kept for budgets by activity
+  private Map<String, ScenarioMetricsImpl> activities;
+  private Counter counter;
+  private StepImpl step;
+
+  // readings taken when the current step started, resp. when its
+  // current action started
+  private long start;
+  private long startClockNanos;
+  private long startEngineNanos;
+  private long startCommands;
+  private long startStatements;
+  private long startStatementNanos;
+  private long startTime;
+  private long action;
+  private long actionEngineNanos;
+
+  void listen(ScenarioListener listener) {
+    listeners.add(listener);
+  }
+
+  void budget(ScenarioBudget budget) {
+    budgets.add(budget);
+    if (budget.getActivityId() != null && activities == null)
+      activities = new HashMap<String, ScenarioMetricsImpl>();
+  }
+
+  void init(ProcessEngine processEngine) {
+    if (ScenarioCommandInterceptor.isInstalled(processEngine)) {
+      counter = ScenarioCommandInterceptor.counter();
+    } else {
+      uncounted();
+      for (ScenarioBudget budget: budgets) {
+        if (budget.getMaxCommands() >= 0 || budget.getMaxStatements() >= 0)
+          throw new IllegalStateException("Budgets for engine commands or SQL statements require the process engine " +
+              "to be configured with the " + ScenarioProcessEnginePlugin.class.getSimpleName());
+      }
+    }
+    step = new StepImpl();
+  }
+
+  private void uncounted() {
+    engineNanos = -1;
+    commands = -1;
+    statements = -1;
+    statementNanos = -1;
+  }
+
+  void polling() {
+    step.reset(counter != null);
+    start = System.nanoTime();
+    startClockNanos = Time.waitedNanos();
+    if (counter != null) {
+      startEngineNanos = counter.getNanos();
+      startCommands = counter.getCommands();
+      startStatements = counter.getStatements();
+      startStatementNanos = counter.getStatementNanos();
+      counter.clear();
+    }
+  }
+
+  void executing(Executable<?> executable) {
+    AbstractExecutable<?> e = (AbstractExecutable<?>) executable;
+    String type = e.getClass().getSimpleName();
+    step.type = type.endsWith("Executable") ? type.substring(0, type.length() - 10) : type;
+    step.activityId = e.getActivityId();
+    step.processInstanceId = e.runner.processInstance.getId();
+    startTime = Time.get().getTime();
+  }
+
+  void acting() {
+    action = System.nanoTime();
+    if (counter != null)
+      actionEngineNanos = counter.getNanos();
+  }
+
+  void acted() {
+    step.actionNanos += System.nanoTime() - action;
+    if (counter != null)
+      step.actionNanos -= counter.getNanos() - actionEngineNanos;
+  }
+
+  void executed() {
+    step.steps = 1;
+    step.timeJump = Time.get().getTime() - startTime;
+    polled();
+    if (activities != null && step.activityId != null) {
+      ScenarioMetricsImpl activity = activities.get(step.activityId);
+      if (activity == null) {
+        activity = new ScenarioMetricsImpl();
+        if (counter == null)
+          activity.uncounted();
+        activities.put(step.activityId, activity);
+      }
+      activity.add(step);
+    }
+    for (ScenarioListener listener: listeners) {
+      listener.executed(step);
+    }
+  }
+
+  // Also called without a step to execute, which is the case after
+  // the last step of the scenario run
+  void polled() {
+    step.wallNanos = System.nanoTime() - start;
+    step.clockNanos = Time.waitedNanos() - startClockNanos;
+    if (counter != null) {
+      step.engineNanos = counter.getNanos() - startEngineNanos;
+      step.commands = counter.getCommands() - startCommands;
+      step.statements = counter.getStatements() - startStatements;
+      step.statementNanos = counter.getStatementNanos() - startStatementNanos;
+      for (Map.Entry<String, Integer> executed: counter.getExecuted().entrySet()) {
+        if (executed.getValue() > 1)
+          step.repeatedStatements.put(executed.getKey(), executed.getValue());
+      }
+    }
+    add(step);
+  }
+
+  private void add(ScenarioMetricsImpl metrics) {
+    steps += metrics.steps;
+    timeJump += metrics.timeJump;
+    wallNanos += metrics.wallNanos;
+    actionNanos += metrics.actionNanos;
+    clockNanos += metrics.clockNanos;
+    if (engineNanos >= 0) {
+      engineNanos += metrics.engineNanos;
+      commands += metrics.commands;
+      statements += metrics.statements;
+      statementNanos += metrics.statementNanos;
+      for (Map.Entry<String, Integer> executed: metrics.repeatedStatements.entrySet()) {
+        Integer repeated = repeatedStatements.get(executed.getKey());
+        repeatedStatements.put(executed.getKey(), repeated == null ? executed.getValue() : repeated + executed.getValue());
+      }
+    }
+  }
+
+  void verify() {
+    StringBuilder report = new StringBuilder();
+    for (ScenarioBudget budget: budgets) {
+      ScenarioMetricsImpl metrics = budget.getActivityId() == null ? this : activities.get(budget.getActivityId());
+      if (metrics == null)
+        continue;
+      StringBuilder exceeded = new StringBuilder();
+      exceeded(exceeded, "steps", metrics.steps, budget.getMaxSteps());
+      exceeded(exceeded, "commands", metrics.commands, budget.getMaxCommands());
+      exceeded(exceeded, "statements", metrics.statements, budget.getMaxStatements());
+      exceeded(exceeded, "ms wall-clock", metrics.wallNanos / 1000000, budget.getMaxMillis());
+      if (exceeded.length() > 0)
+        report.append("\n  ").append(budget).append(" exceeded").append(exceeded)
+          .append("\n    ").append(metrics);
+    }
+    if (report.length() > 0)
+      throw new AssertionError("Scenario run exceeded its budget:" + report);
+  }
+
+  private void exceeded(StringBuilder exceeded, String measure, long actual, long max) {
+    if (max >= 0 && actual > max)
+      exceeded.append(exceeded.length() == 0 ? " " : ", ").append(actual).append(" ")
+        .append(measure).append(" (budget: ").append(max).append(")");
+  }
+
+  @Override
+  public int getSteps() {
+    return steps;
+  }
+
+  @Override
+  public long getTimeJump() {
+    return timeJump;
+  }
+
+  @Override
+  public long getWallNanos() {
+    return wallNanos;
+  }
+
+  @Override
+  public long getActionNanos() {
+    return actionNanos;
+  }
+
+  @Override
+  public long getEngineNanos() {
+    return engineNanos;
+  }
+
+  @Override
+  public long getRunnerNanos() {
+    return wallNanos - actionNanos - Math.max(engineNanos, 0);
+  }
+
+  @Override
+  public long getClockNanos() {
+    return clockNanos;
+  }
+
+  @Override
+  public long getCommands() {
+    return commands;
+  }
+
+  @Override
+  public long getStatements() {
+    return statements;
+  }
+
+  @Override
+  public long getStatementNanos() {
+    return statementNanos;
+  }
+
+  @Override
+  public Map<String, Integer> getRepeatedStatements() {
+    return repeatedStatements;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d steps, %d ms simulated, %d ms wall-clock (actions: %d ms, engine: %s, runner: %d ms%s), %s commands, %s statements (%s)%s",
+        steps, timeJump, wallNanos / 1000000, actionNanos / 1000000,
+        engineNanos < 0 ? "?" : (engineNanos / 1000000) + " ms", getRunnerNanos() / 1000000,
+        clockNanos == 0 ? "" : ", waiting for clock: " + (clockNanos / 1000000) + " ms",
+        commands < 0 ? "?" : String.valueOf(commands), statements < 0 ? "?" : String.valueOf(statements),
+        statementNanos < 0 ? "?" : (statementNanos / 1000000) + " ms",
+        repeatedStatements.isEmpty() ? "" : ", repeated: " + repeatedStatements);
+  }
+
+  static class StepImpl extends ScenarioMetricsImpl implements Step {
+
+    String type;
+    String activityId;
+    String processInstanceId;
+
+    void reset(boolean counted) {
+      steps = 0;
+      timeJump = 0;
+      wallNanos = 0;
+      actionNanos = 0;
+      clockNanos = 0;
+      engineNanos = counted ? 0 : -1;
+      commands = counted ? 0 : -1;
+      statements = counted ? 0 : -1;
+      statementNanos = counted ? 0 : -1;
+      repeatedStatements.clear();
+      type = null;
+      activityId = null;
+      processInstanceId = null;
+    }
+
+    @Override
+    public String getType() {
+      return type;
+    }
+
+    @Override
+    public String getActivityId() {
+      return activityId;
+    }
+
+    @Override
+    public String getProcessInstanceId() {
+      return processInstanceId;
+    }
+
+    @Override
+    public String toString() {
+      return type + " '" + activityId + "' (" + processInstanceId + "): " + super.toString();
+    }
+
+  }
+
+}
@@ -6,6 +6,7 @@ import org.camunda.bpm.scenario.act.Action;
 import org.camunda.bpm.scenario.defer.Deferred;
 import org.camunda.bpm.scenario.delegate.ProcessInstanceDelegate;
 import org.camunda.bpm.scenario.impl.delegate.ProcessInstanceDelegateImpl;
+import org.camunda.bpm.scenario.impl.util.Id;
 import org.camunda.bpm.scenario.impl.util.Log;
 import org.camunda.bpm.scenario.impl.util.Time;
 
@@ -17,11 +18,27 @@ import java.util.Date;
 public abstract class WaitstateExecutable<I> extends AbstractExecutable<I> {
 
   protected HistoricActivityInstance historicDelegate;
+  private Id id;
+  private int step = -1;
 
   protected WaitstateExecutable(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
     super(runner);
     this.historicDelegate = instance;
-    this.delegate = getDelegate();
+    this.id = Id.of(instance.getId());
+  }
+
+  /**
+   * @return the runtime object (task, event subscription etc.) this
+   * waitstate delegates to. Waitstates losing the ordering against other
+   * executables are never executed, so the runtime object is just
+   * queried when first needed and then reused for the rest of the step.
+   */
+  protected I delegate() {
+    if (step != runner.scenarioExecutor.step) {
+      delegate = getDelegate();
+      step = runner.scenarioExecutor.step;
+    }
+    return delegate;
   }
 
   public ProcessInstanceDelegate getProcessInstance() {
@@ -33,6 +50,7 @@ public abstract class WaitstateExecutable<I> extends AbstractExecutable<I> {
     return historicDelegate.getExecutionId();
   }
 
+  @Override
   public String getActivityId() {
     return historicDelegate.getActivityId();
   }
@@ -57,13 +75,24 @@ public abstract class WaitstateExecutable<I> extends AbstractExecutable<I> {
           null,
           null
       );
-      action.execute(this);
+      act(action);
     } catch (Exception e) {
       throw e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
     }
     runner.setExecuted(this);
   }
 
+  @SuppressWarnings("unchecked")
+  protected void act(Action<Object> action) throws Exception {
+    runner.scenarioExecutor.metrics.acting();
+    try {
+      action.execute(this);
+    } finally {
+      runner.scenarioExecutor.metrics.acted();
+      Time.adopt();
+    }
+  }
+
   protected abstract Action action(ProcessScenario scenario);
 
   protected final Action action() {
@@ -82,7 +111,7 @@ public abstract class WaitstateExecutable<I> extends AbstractExecutable<I> {
   @SuppressWarnings("unchecked")
   public int compareTo(AbstractExecutable other) {
     int compare = super.compareTo(other);
-    return compare == 0 ? idComparator.compare(historicDelegate.getId(), ((WaitstateExecutable) other).historicDelegate.getId()) : compare;
+    return compare == 0 ? id.compareTo(((WaitstateExecutable) other).id) : compare;
   }
 
 }
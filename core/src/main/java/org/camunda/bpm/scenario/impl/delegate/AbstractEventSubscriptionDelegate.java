@@ -18,27 +18,27 @@ public abstract class AbstractEventSubscriptionDelegate extends WaitstateExecuta
   }
 
   public String getId() {
-    return delegate.getId();
+    return delegate().getId();
   }
 
   public String getEventType() {
-    return delegate.getEventType();
+    return delegate().getEventType();
   }
 
   public String getEventName() {
-    return delegate.getEventName();
+    return delegate().getEventName();
   }
 
   public String getProcessInstanceId() {
-    return delegate.getProcessInstanceId();
+    return delegate().getProcessInstanceId();
   }
 
   public String getTenantId() {
-    return delegate.getTenantId();
+    return delegate().getTenantId();
   }
 
   public Date getCreated() {
-    return delegate.getCreated();
+    return delegate().getCreated();
   }
 
 }
@@ -18,55 +18,55 @@ public abstract class AbstractExternalTaskDelegate extends WaitstateExecutable<E
   }
 
   public String getId() {
-    return delegate.getId();
+    return delegate().getId();
   }
 
   public String getTopicName() {
-    return delegate.getTopicName();
+    return delegate().getTopicName();
   }
 
   public String getWorkerId() {
-    return delegate.getWorkerId();
+    return delegate().getWorkerId();
   }
 
   public Date getLockExpirationTime() {
-    return delegate.getLockExpirationTime();
+    return delegate().getLockExpirationTime();
   }
 
   public String getProcessInstanceId() {
-    return delegate.getProcessInstanceId();
+    return delegate().getProcessInstanceId();
   }
 
   public String getActivityInstanceId() {
-    return delegate.getActivityInstanceId();
+    return delegate().getActivityInstanceId();
   }
 
   public String getProcessDefinitionId() {
-    return delegate.getProcessDefinitionId();
+    return delegate().getProcessDefinitionId();
   }
 
   public String getProcessDefinitionKey() {
-    return delegate.getProcessDefinitionKey();
+    return delegate().getProcessDefinitionKey();
   }
 
   public Integer getRetries() {
-    return delegate.getRetries();
+    return delegate().getRetries();
   }
 
   public String getErrorMessage() {
-    return delegate.getErrorMessage();
+    return delegate().getErrorMessage();
   }
 
   public boolean isSuspended() {
-    return delegate.isSuspended();
+    return delegate().isSuspended();
   }
 
   public String getTenantId() {
-    return delegate.getTenantId();
+    return delegate().getTenantId();
   }
 
   public long getPriority() {
-    return delegate.getPriority();
+    return delegate().getPriority();
   }
 
 }
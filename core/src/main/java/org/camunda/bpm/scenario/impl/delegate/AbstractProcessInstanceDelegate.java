@@ -16,35 +16,35 @@ public abstract class AbstractProcessInstanceDelegate extends WaitstateExecutabl
   }
 
   public String getProcessDefinitionId() {
-    return delegate.getProcessDefinitionId();
+    return delegate().getProcessDefinitionId();
   }
 
   public String getBusinessKey() {
-    return delegate.getBusinessKey();
+    return delegate().getBusinessKey();
   }
 
   public String getCaseInstanceId() {
-    return delegate.getCaseInstanceId();
+    return delegate().getCaseInstanceId();
   }
 
   public boolean isSuspended() {
-    return delegate.isSuspended();
+    return delegate().isSuspended();
   }
 
   public String getId() {
-    return delegate.getId();
+    return delegate().getId();
   }
 
   public boolean isEnded() {
-    return delegate.isEnded();
+    return delegate().isEnded();
   }
 
   public String getProcessInstanceId() {
-    return delegate.getProcessInstanceId();
+    return delegate().getProcessInstanceId();
   }
 
   public String getTenantId() {
-    return delegate.getTenantId();
+    return delegate().getTenantId();
   }
 
 }
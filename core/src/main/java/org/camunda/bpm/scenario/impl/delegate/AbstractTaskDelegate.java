@@ -19,131 +19,131 @@ public abstract class AbstractTaskDelegate extends WaitstateExecutable<Task> imp
   }
 
   public String getId() {
-    return delegate.getId();
+    return delegate().getId();
   }
 
   public String getName() {
-    return delegate.getName();
+    return delegate().getName();
   }
 
   public void setName(String name) {
-    delegate.setName(name);
+    delegate().setName(name);
   }
 
   public String getDescription() {
-    return delegate.getDescription();
+    return delegate().getDescription();
   }
 
   public void setDescription(String description) {
-    delegate.setDescription(description);
+    delegate().setDescription(description);
   }
 
   public int getPriority() {
-    return delegate.getPriority();
+    return delegate().getPriority();
   }
 
   public void setPriority(int priority) {
-    delegate.setPriority(priority);
+    delegate().setPriority(priority);
   }
 
   public String getOwner() {
-    return delegate.getOwner();
+    return delegate().getOwner();
   }
 
   public void setOwner(String owner) {
-    delegate.setOwner(owner);
+    delegate().setOwner(owner);
   }
 
   public String getAssignee() {
-    return delegate.getAssignee();
+    return delegate().getAssignee();
   }
 
   public void setAssignee(String assignee) {
-    delegate.setAssignee(assignee);
+    delegate().setAssignee(assignee);
   }
 
   public DelegationState getDelegationState() {
-    return delegate.getDelegationState();
+    return delegate().getDelegationState();
   }
 
   public void setDelegationState(DelegationState delegationState) {
-    delegate.setDelegationState(delegationState);
+    delegate().setDelegationState(delegationState);
   }
 
   public String getProcessInstanceId() {
-    return delegate.getProcessInstanceId();
+    return delegate().getProcessInstanceId();
   }
 
   public String getProcessDefinitionId() {
-    return delegate.getProcessDefinitionId();
+    return delegate().getProcessDefinitionId();
   }
 
   public String getCaseInstanceId() {
-    return delegate.getCaseInstanceId();
+    return delegate().getCaseInstanceId();
   }
 
   public void setCaseInstanceId(String caseInstanceId) {
-    delegate.setCaseInstanceId(caseInstanceId);
+    delegate().setCaseInstanceId(caseInstanceId);
   }
 
   public String getCaseExecutionId() {
-    return delegate.getCaseExecutionId();
+    return delegate().getCaseExecutionId();
   }
 
   public String getCaseDefinitionId() {
-    return delegate.getCaseDefinitionId();
+    return delegate().getCaseDefinitionId();
   }
 
   public Date getCreateTime() {
-    return delegate.getCreateTime();
+    return delegate().getCreateTime();
   }
 
   public String getTaskDefinitionKey() {
-    return delegate.getTaskDefinitionKey();
+    return delegate().getTaskDefinitionKey();
   }
 
   public Date getDueDate() {
-    return delegate.getDueDate();
+    return delegate().getDueDate();
   }
 
   public void setDueDate(Date dueDate) {
-    delegate.setDueDate(dueDate);
+    delegate().setDueDate(dueDate);
   }
 
   public Date getFollowUpDate() {
-    return delegate.getFollowUpDate();
+    return delegate().getFollowUpDate();
   }
 
   public void setFollowUpDate(Date dueDate) {
-    delegate.setFollowUpDate(dueDate);
+    delegate().setFollowUpDate(dueDate);
   }
 
   public void delegate(String userId) {
-    delegate.delegate(userId);
+    delegate().delegate(userId);
   }
 
   public void setParentTaskId(String parentTaskId) {
-    delegate.setParentTaskId(parentTaskId);
+    delegate().setParentTaskId(parentTaskId);
   }
 
   public String getParentTaskId() {
-    return delegate.getParentTaskId();
+    return delegate().getParentTaskId();
   }
 
   public boolean isSuspended() {
-    return delegate.isSuspended();
+    return delegate().isSuspended();
   }
 
   public String getFormKey() {
-    return delegate.getFormKey();
+    return delegate().getFormKey();
   }
 
   public String getTenantId() {
-    return delegate.getTenantId();
+    return delegate().getTenantId();
   }
 
   public void setTenantId(String tenantId) {
-    delegate.setTenantId(tenantId);
+    delegate().setTenantId(tenantId);
   }
 
 }
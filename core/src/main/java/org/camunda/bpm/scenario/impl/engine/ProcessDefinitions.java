@@ -0,0 +1,189 @@
+package org.camunda.bpm.scenario.impl.engine;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.management.JobDefinition;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.model.bpmn.instance.EventDefinition;
+import org.camunda.bpm.model.bpmn.instance.FlowNode;
+import org.camunda.bpm.model.bpmn.instance.ThrowEvent;
+import org.camunda.bpm.scenario.impl.util.Api;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Metadata of the process definitions scenarios run with, cached per
+ * engine and bounded to the definitions used most recently. As a
+ * deployment never reuses the id of a process definition, entries are
+ * never outdated, just those of deleted definitions age out.
+ *
+ * The BPMN model of a definition is analysed once, too, classifying
+ * its flow nodes into those which may wait for a scenario's action,
+ * async boundaries and pass-through nodes, so that runners can skip the
+ * activity instances of the latter two right away.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ProcessDefinitions {
+
+  static final int SIZE = 256;
+
+  /**
+   * Flow nodes as far as scenarios are concerned: those which may wait
+   * for a scenario's action, those which just wait for their jobs to be
+   * executed and those which never wait at all.
+   */
+  public enum Activity { WAITSTATE, ASYNC, PASS_THROUGH }
+
+  // BPMN elements which never wait for a scenario's action, unless they
+  // throw or end with a message, which may be an external task
+  private static final Set<String> PASS_THROUGH = new HashSet<String>(Arrays.asList(
+    "startEvent", "endEvent", "intermediateThrowEvent", "boundaryEvent",
+    "exclusiveGateway", "inclusiveGateway", "parallelGateway", "complexGateway",
+    "task", "manualTask", "scriptTask", "subProcess", "transaction"
+  ));
+  private static final String MULTI_INSTANCE_BODY = "#multiInstanceBody";
+  private static final String[][] ASYNC = {
+    { "http://camunda.org/schema/1.0/bpmn", "asyncBefore" },
+    { "http://camunda.org/schema/1.0/bpmn", "asyncAfter" },
+    { "http://camunda.org/schema/1.0/bpmn", "async" },
+    { "http://activiti.org/bpmn", "async" }
+  };
+
+  private static Map<ProcessEngine, Map<String, ProcessDefinitions>> caches
+    = new WeakHashMap<ProcessEngine, Map<String, ProcessDefinitions>>();
+
+  private String id;
+  private String key;
+  private String name;
+  private int version;
+  private String versionTag;
+  // null in case the BPMN model could not be analysed
+  private Map<String, Activity> activities;
+  // activity ids by job definition id, queried when first needed
+  private volatile Map<String, String> jobActivities;
+
+  private ProcessDefinitions(ProcessEngine processEngine, ProcessDefinition processDefinition) {
+    this.id = processDefinition.getId();
+    this.key = processDefinition.getKey();
+    this.name = processDefinition.getName();
+    this.version = processDefinition.getVersion();
+    if (Api.feature(ProcessDefinition.class.getName(), "getVersionTag").isSupported())
+      this.versionTag = processDefinition.getVersionTag();
+    // BPMN models are not known to Camunda BPM 7.0
+    if (Api.feature(RepositoryService.class.getName(), "getBpmnModelInstance", String.class).isSupported())
+      this.activities = analyse(processEngine.getRepositoryService().getBpmnModelInstance(processDefinition.getId()));
+  }
+
+  /**
+   * @return metadata of the process definition with the id provided,
+   * just queried from the engine when not yet cached.
+   */
+  public static ProcessDefinitions get(ProcessEngine processEngine, String processDefinitionId) {
+    Map<String, ProcessDefinitions> cache;
+    synchronized (caches) {
+      cache = caches.get(processEngine);
+      if (cache == null) {
+        cache = new LinkedHashMap<String, ProcessDefinitions>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, ProcessDefinitions> eldest) {
+            return size() > SIZE;
+          }
+        };
+        caches.put(processEngine, cache);
+      }
+      ProcessDefinitions definition = cache.get(processDefinitionId);
+      if (definition != null)
+        return definition;
+    }
+    ProcessDefinitions definition = new ProcessDefinitions(processEngine, processEngine.getRepositoryService()
+      .createProcessDefinitionQuery().processDefinitionId(processDefinitionId).singleResult());
+    synchronized (caches) {
+      cache.put(processDefinitionId, definition);
+    }
+    return definition;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getVersion() {
+    return version;
+  }
+
+  public String getVersionTag() {
+    return versionTag;
+  }
+
+  /**
+   * @return the kind of flow node with the activity id provided, or
+   * null in case it is not known.
+   */
+  public Activity getActivity(String activityId) {
+    if (activities == null)
+      return null;
+    // multi instance bodies are scopes around the actual activity
+    if (activityId.endsWith(MULTI_INSTANCE_BODY))
+      return Activity.PASS_THROUGH;
+    return activities.get(activityId);
+  }
+
+  /**
+   * @return id of the activity the job definition provided belongs
+   * to, or null in case it is not known. The job definitions of the
+   * process definition are queried once, when first needed.
+   */
+  public String getJobActivityId(ProcessEngine processEngine, String jobDefinitionId) {
+    Map<String, String> jobActivities = this.jobActivities;
+    if (jobActivities == null) {
+      jobActivities = new HashMap<String, String>();
+      for (JobDefinition jobDefinition: processEngine.getManagementService()
+          .createJobDefinitionQuery().processDefinitionId(id).list()) {
+        jobActivities.put(jobDefinition.getId(), jobDefinition.getActivityId());
+      }
+      this.jobActivities = jobActivities;
+    }
+    return jobActivities.get(jobDefinitionId);
+  }
+
+  private static Map<String, Activity> analyse(BpmnModelInstance model) {
+    if (model == null)
+      return null;
+    Map<String, Activity> activities = new HashMap<String, Activity>();
+    for (FlowNode node: model.getModelElementsByType(FlowNode.class)) {
+      activities.put(node.getId(), analyse(node));
+    }
+    return activities;
+  }
+
+  // Classifies by element type names, as the model API of older
+  // versions does not know all the element types
+  private static Activity analyse(FlowNode node) {
+    if (!PASS_THROUGH.contains(node.getElementType().getTypeName()))
+      return Activity.WAITSTATE;
+    if (node instanceof ThrowEvent) {
+      for (EventDefinition definition: ((ThrowEvent) node).getEventDefinitions()) {
+        if ("messageEventDefinition".equals(definition.getElementType().getTypeName()))
+          return Activity.WAITSTATE;
+      }
+    }
+    for (String[] attribute: ASYNC) {
+      if ("true".equals(node.getAttributeValueNs(attribute[0], attribute[1])))
+        return Activity.ASYNC;
+    }
+    return Activity.PASS_THROUGH;
+  }
+
+}
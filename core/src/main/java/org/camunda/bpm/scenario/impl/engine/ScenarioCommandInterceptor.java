@@ -0,0 +1,146 @@
+package org.camunda.bpm.scenario.impl.engine;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+import org.camunda.bpm.scenario.impl.util.Time;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the commands a process engine executes on behalf of the
+ * current thread and the time spent in them. Nested commands are
+ * attributed to the command which issued them. The counter of the
+ * current thread also counts the SQL statements registered by the
+ * {@link ScenarioStatementInterceptor}.
+ *
+ * In addition, the outermost command lends the engine's clock to the
+ * scenario time of the current thread, so that scenarios executed in
+ * parallel threads just wait for each other while working with the
+ * engine, but not while acting or looking at their process instances.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ScenarioCommandInterceptor extends CommandInterceptor {
+
+  private static final ThreadLocal<Counter> counters = new ThreadLocal<Counter>() {
+    @Override
+    protected Counter initialValue() {
+      return new Counter();
+    }
+  };
+
+  /**
+   * @return true in case the process engine provided counts its
+   * commands by means of this interceptor
+   */
+  public static boolean isInstalled(ProcessEngine processEngine) {
+    if (processEngine instanceof ProcessEngineImpl) {
+      ProcessEngineConfigurationImpl configuration = ((ProcessEngineImpl) processEngine).getProcessEngineConfiguration();
+      return contains(configuration.getCustomPreCommandInterceptorsTxRequired());
+    }
+    return false;
+  }
+
+  /**
+   * @return the counter of the current thread
+   */
+  public static Counter counter() {
+    return counters.get();
+  }
+
+  @Override
+  public <T> T execute(Command<T> command) {
+    Counter counter = counters.get();
+    if (counter.depth++ > 0) {
+      try {
+        return next.execute(command);
+      } finally {
+        counter.depth--;
+      }
+    }
+    Time.acquire();
+    long start = System.nanoTime();
+    try {
+      return next.execute(command);
+    } finally {
+      Time.release();
+      counter.depth--;
+      counter.commands++;
+      counter.nanos += System.nanoTime() - start;
+    }
+  }
+
+  private static boolean contains(List<CommandInterceptor> interceptors) {
+    if (interceptors != null) {
+      for (CommandInterceptor interceptor: interceptors) {
+        if (interceptor instanceof ScenarioCommandInterceptor)
+          return true;
+      }
+    }
+    return false;
+  }
+
+  public static class Counter {
+
+    private int depth;
+    private long commands;
+    private long nanos;
+    private long statements;
+    private long statementNanos;
+    private Map<String, Integer> executed = new HashMap<String, Integer>();
+
+    void executed(String statementId, long nanos) {
+      statements++;
+      statementNanos += nanos;
+      Integer count = executed.get(statementId);
+      executed.put(statementId, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * @return number of outermost commands executed so far
+     */
+    public long getCommands() {
+      return commands;
+    }
+
+    /**
+     * @return nanoseconds spent in commands so far
+     */
+    public long getNanos() {
+      return nanos;
+    }
+
+    /**
+     * @return number of SQL statements executed so far
+     */
+    public long getStatements() {
+      return statements;
+    }
+
+    /**
+     * @return nanoseconds spent in SQL statements so far
+     */
+    public long getStatementNanos() {
+      return statementNanos;
+    }
+
+    /**
+     * @return number of executions by statement id since the
+     * counter was last cleared
+     */
+    public Map<String, Integer> getExecuted() {
+      return executed;
+    }
+
+    public void clear() {
+      executed.clear();
+    }
+
+  }
+
+}
@@ -0,0 +1,196 @@
+package org.camunda.bpm.scenario.impl.engine;
+
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.scenario.impl.util.Api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Agenda of engine events for a single scenario run. Every history
+ * event (an activity instance reached or ended, a task created, a
+ * job executed etc.) raises the version of the process instance it
+ * belongs to. Runners just need to look at the history and jobs of
+ * their process instance again in case its version changed since
+ * they last looked. In addition, the activity instances started or
+ * ended in a process instance are collected in the state last seen,
+ * so that runners do not need to fetch them from the history at all.
+ *
+ * Note that the creation or change of a job does not produce a history
+ * event below history level 'full', so the versions are raised by the
+ * {@link ScenarioStatementInterceptor} writing jobs, too. Runners may
+ * watch the jobs of their process instance for a while, in order to
+ * keep jobs they queried up to date without querying them again. Only
+ * jobs of transactions committed are seen, and just as copies.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ScenarioEvents {
+
+  private ScenarioHistoryEventHandler handler;
+  private Map<String, Long> versions = new HashMap<String, Long>();
+  private Map<String, Map<String, HistoricActivityInstance>> activityInstances
+    = new HashMap<String, Map<String, HistoricActivityInstance>>();
+  // jobs created and ids of jobs deleted per process instance watched
+  private Map<String, List<Job>> createdJobs = new HashMap<String, List<Job>>();
+  private Map<String, Set<String>> deletedJobs = new HashMap<String, Set<String>>();
+
+  private ScenarioEvents(ScenarioHistoryEventHandler handler) {
+    this.handler = handler;
+  }
+
+  /**
+   * @return events of the process engine provided, or null in case
+   * the engine is not configured with the ScenarioProcessEnginePlugin.
+   */
+  public static ScenarioEvents subscribe(ProcessEngine processEngine) {
+    ScenarioHistoryEventHandler handler = ScenarioHistoryEventHandler.get(processEngine);
+    if (handler == null)
+      return null;
+    ScenarioEvents events = new ScenarioEvents(handler);
+    handler.subscribe(events);
+    return events;
+  }
+
+  public void unsubscribe() {
+    handler.unsubscribe(this);
+  }
+
+  /**
+   * @return the in-memory history of the process engine, or null in
+   * case the engine writes its history to the database.
+   */
+  public ScenarioHistory history() {
+    return handler.history();
+  }
+
+  public synchronized long version(String processInstanceId) {
+    Long version = versions.get(processInstanceId);
+    return version != null ? version : 0;
+  }
+
+  /**
+   * @return activity instances started or ended in the process instance
+   * provided since the last call of this method, in the state last seen
+   * and in the order they were first seen.
+   */
+  public synchronized List<HistoricActivityInstance> activityInstances(String processInstanceId) {
+    Map<String, HistoricActivityInstance> instances = activityInstances.remove(processInstanceId);
+    return instances != null
+      ? new ArrayList<HistoricActivityInstance>(instances.values())
+      : Collections.<HistoricActivityInstance>emptyList();
+  }
+
+  /**
+   * Starts to watch the jobs created and deleted in the process instance
+   * provided.
+   */
+  public synchronized void watchJobs(String processInstanceId) {
+    createdJobs.put(processInstanceId, new ArrayList<Job>());
+    deletedJobs.put(processInstanceId, new HashSet<String>());
+  }
+
+  /**
+   * @return the jobs created in the process instance provided since we
+   * started to watch it, without those deleted in the meantime.
+   */
+  public synchronized List<Job> createdJobs(String processInstanceId) {
+    Set<String> deleted = deletedJobs.get(processInstanceId);
+    List<Job> created = new ArrayList<Job>();
+    for (Job job: createdJobs.get(processInstanceId)) {
+      if (!deleted.contains(job.getId()))
+        created.add(job);
+    }
+    return created;
+  }
+
+  /**
+   * @return the ids of the jobs deleted in the process instance provided
+   * since we started to watch it.
+   */
+  public synchronized Set<String> deletedJobs(String processInstanceId) {
+    return new HashSet<String>(deletedJobs.get(processInstanceId));
+  }
+
+  /**
+   * Stops to watch the jobs of the process instance provided.
+   */
+  public synchronized void unwatchJobs(String processInstanceId) {
+    createdJobs.remove(processInstanceId);
+    deletedJobs.remove(processInstanceId);
+  }
+
+  synchronized void changed(String processInstanceId) {
+    versions.put(processInstanceId, version(processInstanceId) + 1);
+  }
+
+  synchronized void changed(JobEntity job, SqlCommandType command) {
+    String processInstanceId = job.getProcessInstanceId();
+    changed(processInstanceId);
+    if (command == SqlCommandType.INSERT && createdJobs.containsKey(processInstanceId))
+      createdJobs.get(processInstanceId).add(job);
+    else if (command == SqlCommandType.DELETE && deletedJobs.containsKey(processInstanceId))
+      deletedJobs.get(processInstanceId).add(job.getId());
+  }
+
+  /**
+   * @return a copy of the job provided, detached from the command and
+   * the execution which wrote it. It knows just what runners need to
+   * know in order to execute the job.
+   */
+  static JobEntity copy(JobEntity job) {
+    JobEntity copy;
+    try {
+      copy = job.getClass().getConstructor().newInstance();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+    copy.setId(job.getId());
+    copy.setRevision(job.getRevision());
+    copy.setDuedate(job.getDuedate());
+    copy.setRetries(job.getRetries());
+    copy.setExecutionId(job.getExecutionId());
+    copy.setProcessInstanceId(job.getProcessInstanceId());
+    copy.setJobHandlerType(job.getJobHandlerType());
+    // job definitions are not known to Camunda BPM 7.0
+    if (Api.feature(JobEntity.class.getName(), "getJobDefinitionId").isSupported())
+      copy.setJobDefinitionId(job.getJobDefinitionId());
+    // the configuration is just known as a String before Camunda BPM 7.5
+    if (Api.feature(JobEntity.class.getName(), "getJobHandlerConfigurationRaw").isSupported()) {
+      copy.setJobHandlerConfigurationRaw(job.getJobHandlerConfigurationRaw());
+    } else {
+      try {
+        JobEntity.class.getMethod("setJobHandlerConfiguration", String.class)
+          .invoke(copy, JobEntity.class.getMethod("getJobHandlerConfiguration").invoke(job));
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return copy;
+  }
+
+  synchronized void add(HistoryEvent historyEvent) {
+    String processInstanceId = historyEvent.getProcessInstanceId();
+    changed(processInstanceId);
+    if (historyEvent instanceof HistoricActivityInstance) {
+      Map<String, HistoricActivityInstance> instances = activityInstances.get(processInstanceId);
+      if (instances == null) {
+        instances = new LinkedHashMap<String, HistoricActivityInstance>();
+        activityInstances.put(processInstanceId, instances);
+      }
+      instances.put(historyEvent.getId(), (HistoricActivityInstance) historyEvent);
+    }
+  }
+
+}
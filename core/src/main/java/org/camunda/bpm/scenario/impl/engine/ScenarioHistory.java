@@ -0,0 +1,130 @@
+package org.camunda.bpm.scenario.impl.engine;
+
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.impl.history.event.HistoricActivityInstanceEventEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricActivityInstanceEntity;
+import org.camunda.bpm.scenario.impl.util.Api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory replacement of the activity instance history for engines
+ * running with the {@link ScenarioHistoryLevel}. The events of an
+ * activity instance are merged into a single historic activity
+ * instance, which is kept here just as long as it is unfinished. So
+ * the memory needed is bounded by the process instances currently
+ * running, while scenarios keep the instances they need beyond that
+ * with their {@link ScenarioEvents}.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ScenarioHistory {
+
+  // unfinished activity instances by process instance id and then by id
+  private Map<String, Map<String, HistoricActivityInstanceEntity>> unfinished
+    = new HashMap<String, Map<String, HistoricActivityInstanceEntity>>();
+
+  /**
+   * @return unfinished activity instances of the process instance
+   * provided, in the order they were started.
+   */
+  public synchronized List<HistoricActivityInstance> unfinished(String processInstanceId) {
+    Map<String, HistoricActivityInstanceEntity> instances = unfinished.get(processInstanceId);
+    return instances != null
+      ? new ArrayList<HistoricActivityInstance>(instances.values())
+      : Collections.<HistoricActivityInstance>emptyList();
+  }
+
+  /**
+   * @return the activity instance with the id provided, or null in
+   * case it is finished or unknown.
+   */
+  public synchronized HistoricActivityInstance unfinished(String processInstanceId, String activityInstanceId) {
+    Map<String, HistoricActivityInstanceEntity> instances = unfinished.get(processInstanceId);
+    return instances != null ? instances.get(activityInstanceId) : null;
+  }
+
+  /**
+   * @return the activity instance the event provided belongs to, as
+   * of this event. Every event results in a new instance, so instances
+   * handed out before are never changed.
+   */
+  synchronized HistoricActivityInstanceEntity add(HistoricActivityInstanceEventEntity event) {
+    String processInstanceId = event.getProcessInstanceId();
+    Map<String, HistoricActivityInstanceEntity> instances = unfinished.get(processInstanceId);
+    HistoricActivityInstanceEntity instance = new HistoricActivityInstanceEntity();
+    if (instances != null && instances.containsKey(event.getId()))
+      merge(instances.get(event.getId()), instance);
+    merge(event, instance);
+    if (instance.getEndTime() == null) {
+      if (instances == null) {
+        instances = new LinkedHashMap<String, HistoricActivityInstanceEntity>();
+        unfinished.put(processInstanceId, instances);
+      }
+      instances.put(instance.getId(), instance);
+    } else if (instances != null) {
+      instances.remove(instance.getId());
+      if (instances.isEmpty())
+        unfinished.remove(processInstanceId);
+    }
+    return instance;
+  }
+
+  /**
+   * @return a copy of the event provided, as the engine may reuse its
+   * event objects.
+   */
+  static HistoricActivityInstanceEventEntity copy(HistoricActivityInstanceEventEntity event) {
+    HistoricActivityInstanceEventEntity copy = new HistoricActivityInstanceEventEntity();
+    merge(event, copy);
+    copy.setEventType(event.getEventType());
+    return copy;
+  }
+
+  // Transfers what the event knows about the activity instance, later
+  // events do not necessarily repeat everything known before
+  private static void merge(HistoricActivityInstanceEventEntity event, HistoricActivityInstanceEventEntity instance) {
+    instance.setId(event.getId());
+    instance.setActivityInstanceId(event.getId());
+    instance.setProcessInstanceId(event.getProcessInstanceId());
+    if (event.getProcessDefinitionId() != null)
+      instance.setProcessDefinitionId(event.getProcessDefinitionId());
+    // process definition keys and case instances are not known to the
+    // events of Camunda BPM 7.1
+    if (Api.feature(HistoricActivityInstanceEventEntity.class.getName(), "getProcessDefinitionKey").isSupported()
+        && event.getProcessDefinitionKey() != null)
+      instance.setProcessDefinitionKey(event.getProcessDefinitionKey());
+    if (event.getExecutionId() != null)
+      instance.setExecutionId(event.getExecutionId());
+    if (event.getActivityId() != null)
+      instance.setActivityId(event.getActivityId());
+    if (event.getActivityName() != null)
+      instance.setActivityName(event.getActivityName());
+    if (event.getActivityType() != null)
+      instance.setActivityType(event.getActivityType());
+    if (event.getParentActivityInstanceId() != null)
+      instance.setParentActivityInstanceId(event.getParentActivityInstanceId());
+    if (event.getCalledProcessInstanceId() != null)
+      instance.setCalledProcessInstanceId(event.getCalledProcessInstanceId());
+    if (Api.feature(HistoricActivityInstanceEventEntity.class.getName(), "getCalledCaseInstanceId").isSupported()
+        && event.getCalledCaseInstanceId() != null)
+      instance.setCalledCaseInstanceId(event.getCalledCaseInstanceId());
+    if (event.getTaskId() != null)
+      instance.setTaskId(event.getTaskId());
+    if (event.getTaskAssignee() != null)
+      instance.setTaskAssignee(event.getTaskAssignee());
+    if (event.getStartTime() != null)
+      instance.setStartTime(event.getStartTime());
+    if (event.getEndTime() != null) {
+      instance.setEndTime(event.getEndTime());
+      instance.setDurationInMillis(event.getDurationInMillis());
+      instance.setActivityInstanceState(event.getActivityInstanceState());
+    }
+  }
+
+}
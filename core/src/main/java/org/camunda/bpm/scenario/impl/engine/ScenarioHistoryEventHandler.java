@@ -0,0 +1,147 @@
+package org.camunda.bpm.scenario.impl.engine;
+
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.history.event.HistoricActivityInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Wraps the history event handler configured for the engine and
+ * forwards all history events of process instances to the
+ * scenarios currently executed with this engine. The events of an
+ * activity instance are merged into its current state by a {@link
+ * ScenarioHistory} once the transaction producing them committed, so
+ * that scenarios know that state without querying the history. For
+ * engines running with the {@link ScenarioHistoryLevel}, the events
+ * are not handed to the configured handler at all, the {@link
+ * ScenarioHistory} then serves as the history itself.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ScenarioHistoryEventHandler implements HistoryEventHandler {
+
+  private HistoryEventHandler delegate;
+  private ScenarioHistory history = new ScenarioHistory();
+  private boolean inMemory;
+  private List<ScenarioEvents> subscribers = new CopyOnWriteArrayList<ScenarioEvents>();
+
+  public ScenarioHistoryEventHandler(HistoryEventHandler delegate) {
+    this(delegate, false);
+  }
+
+  /**
+   * @param inMemory true in case the history events should be kept in
+   * memory instead of being handed to the delegate
+   */
+  public ScenarioHistoryEventHandler(HistoryEventHandler delegate, boolean inMemory) {
+    this.delegate = delegate;
+    this.inMemory = inMemory;
+  }
+
+  public static ScenarioHistoryEventHandler get(ProcessEngine processEngine) {
+    if (processEngine instanceof ProcessEngineImpl) {
+      HistoryEventHandler handler = ((ProcessEngineImpl) processEngine).getProcessEngineConfiguration().getHistoryEventHandler();
+      if (handler instanceof ScenarioHistoryEventHandler)
+        return (ScenarioHistoryEventHandler) handler;
+    }
+    return null;
+  }
+
+  /**
+   * @return the in-memory history, or null in case the history events
+   * are handed to the handler configured for the engine.
+   */
+  public ScenarioHistory history() {
+    return inMemory ? history : null;
+  }
+
+  @Override
+  public void handleEvent(HistoryEvent historyEvent) {
+    if (!inMemory)
+      delegate.handleEvent(historyEvent);
+    remember(historyEvent);
+  }
+
+  @Override
+  public void handleEvents(List<HistoryEvent> historyEvents) {
+    if (!inMemory)
+      delegate.handleEvents(historyEvents);
+    for (HistoryEvent historyEvent: historyEvents) {
+      remember(historyEvent);
+    }
+  }
+
+  void subscribe(ScenarioEvents events) {
+    subscribers.add(events);
+  }
+
+  void unsubscribe(ScenarioEvents events) {
+    subscribers.remove(events);
+  }
+
+  // Events of transactions rolled back must not be seen, just as if
+  // they were written to the database
+  private void remember(HistoryEvent historyEvent) {
+    if (!(historyEvent instanceof HistoricActivityInstanceEventEntity)) {
+      notify(historyEvent);
+      return;
+    }
+    final HistoricActivityInstanceEventEntity event = ScenarioHistory.copy((HistoricActivityInstanceEventEntity) historyEvent);
+    CommandContext commandContext = Context.getCommandContext();
+    if (commandContext != null) {
+      commandContext.getTransactionContext().addTransactionListener(TransactionState.COMMITTED, new TransactionListener() {
+        @Override
+        public void execute(CommandContext commandContext) {
+          ScenarioHistoryEventHandler.this.notify(history.add(event));
+        }
+      });
+    } else {
+      notify(history.add(event));
+    }
+  }
+
+  /**
+   * Lets the scenarios know about a job written by the command provided,
+   * which does not necessarily produce a history event. Just as history
+   * events, jobs written by transactions rolled back are never seen.
+   */
+  void changed(JobEntity job, final SqlCommandType command) {
+    final JobEntity copy = ScenarioEvents.copy(job);
+    CommandContext commandContext = Context.getCommandContext();
+    if (commandContext != null) {
+      commandContext.getTransactionContext().addTransactionListener(TransactionState.COMMITTED, new TransactionListener() {
+        @Override
+        public void execute(CommandContext commandContext) {
+          ScenarioHistoryEventHandler.this.notify(copy, command);
+        }
+      });
+    } else {
+      notify(copy, command);
+    }
+  }
+
+  private void notify(JobEntity job, SqlCommandType command) {
+    for (ScenarioEvents events: subscribers) {
+      events.changed(job, command);
+    }
+  }
+
+  private void notify(HistoryEvent historyEvent) {
+    if (historyEvent.getProcessInstanceId() != null) {
+      for (ScenarioEvents events: subscribers) {
+        events.add(historyEvent);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,71 @@
+package org.camunda.bpm.scenario.impl.engine;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventType;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * History level replacing history level 'none' for engines configured
+ * with the ScenarioProcessEnginePlugin. It just lets the engine produce
+ * the events of activity instances, which the {@link
+ * ScenarioHistoryEventHandler} then keeps in memory instead of writing
+ * them to the database. Custom history levels are not known to Camunda
+ * BPM 7.1, so make sure this class is not loaded with it.
+ *
+ * The engine checks the history level of its database by id, so this
+ * level shares its id with history level 'none'. A database created
+ * with history level 'none' can therefore be used with and without
+ * the plugin, just as a database created with the plugin.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ScenarioHistoryLevel implements HistoryLevel {
+
+  public static final String NAME = "scenario";
+
+  // the id of history level 'none', which the engine keeps telling
+  // apart from this level as history levels are equal by class
+  static final int ID = 0;
+
+  /**
+   * @return true in case the configuration provided asked for history
+   * level 'none' and now uses this history level instead.
+   */
+  public static boolean install(ProcessEngineConfigurationImpl configuration) {
+    if (!ProcessEngineConfiguration.HISTORY_NONE.equalsIgnoreCase(configuration.getHistory()))
+      return false;
+    List<HistoryLevel> levels = configuration.getCustomHistoryLevels();
+    if (levels == null) {
+      levels = new ArrayList<HistoryLevel>();
+      configuration.setCustomHistoryLevels(levels);
+    }
+    levels.add(new ScenarioHistoryLevel());
+    configuration.setHistory(NAME);
+    return true;
+  }
+
+  @Override
+  public int getId() {
+    return ID;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public boolean isHistoryEventProduced(HistoryEventType eventType, Object entity) {
+    // some versions mix up entity type and event name of the event
+    // types, so we compare the types themselves
+    return eventType == HistoryEventTypes.ACTIVITY_INSTANCE_START
+        || eventType == HistoryEventTypes.ACTIVITY_INSTANCE_UPDATE
+        || eventType == HistoryEventTypes.ACTIVITY_INSTANCE_END;
+  }
+
+}
@@ -0,0 +1,63 @@
+package org.camunda.bpm.scenario.impl.engine;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+
+import java.util.Properties;
+
+/**
+ * Counts the SQL statements a process engine executes on behalf of
+ * the current thread, by statement id, and the time spent in them.
+ * Statements the engine executes in batches are counted when they are
+ * added to the batch.
+ *
+ * Statements writing jobs of process instances are reported to the
+ * {@link ScenarioHistoryEventHandler}, as they do not necessarily
+ * produce history events, but change what scenarios need to execute.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@Intercepts({
+  @Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class }),
+  @Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class })
+})
+public class ScenarioStatementInterceptor implements Interceptor {
+
+  private ScenarioHistoryEventHandler handler;
+
+  public ScenarioStatementInterceptor(ScenarioHistoryEventHandler handler) {
+    this.handler = handler;
+  }
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    long start = System.nanoTime();
+    Object[] args = invocation.getArgs();
+    try {
+      return invocation.proceed();
+    } finally {
+      MappedStatement statement = (MappedStatement) args[0];
+      ScenarioCommandInterceptor.counter().executed(statement.getId(), System.nanoTime() - start);
+      if (args[1] instanceof JobEntity && ((JobEntity) args[1]).getProcessInstanceId() != null)
+        handler.changed((JobEntity) args[1], statement.getSqlCommandType());
+    }
+  }
+
+  @Override
+  public Object plugin(Object target) {
+    return Plugin.wrap(target, this);
+  }
+
+  @Override
+  public void setProperties(Properties properties) {
+  }
+
+}
@@ -11,13 +11,23 @@ import java.util.Date;
  */
 public class ContinuationExecutable extends JobExecutable {
 
+  // continuations are due right away
+  private static final Date DUE = new Date(0);
+
   public ContinuationExecutable(ProcessRunnerImpl runner, Job job) {
     super(runner, job);
   }
 
   @Override
   public Date isExecutableAt() {
-    return new Date(0);
+    return DUE;
+  }
+
+  @Override
+  public void execute() {
+    executeJob();
+    drain();
+    runner.setExecuted(this);
   }
 
 }
@@ -0,0 +1,51 @@
+package org.camunda.bpm.scenario.impl.job;
+
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.scenario.act.Action;
+import org.camunda.bpm.scenario.impl.JobExecutable;
+import org.camunda.bpm.scenario.impl.ProcessRunnerImpl;
+import org.camunda.bpm.scenario.impl.util.Time;
+
+import java.util.Date;
+
+/**
+ * Job dealt with by an action of a registered
+ * {@link org.camunda.bpm.scenario.spi.JobFactory}. Jobs without a due
+ * date are due right away, others make the scenario time jump to their
+ * due date, just like timers.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ProvidedJobExecutable extends JobExecutable {
+
+  private static final Date DUE = new Date(0);
+
+  private Action<Job> action;
+  private Date isExecutableAt;
+
+  public ProvidedJobExecutable(ProcessRunnerImpl runner, Job job, Action<Job> action) {
+    super(runner, job);
+    this.action = action;
+    this.isExecutableAt = job.getDuedate() == null ? DUE : Time.correct(job.getDuedate());
+  }
+
+  @Override
+  public Date isExecutableAt() {
+    return isExecutableAt;
+  }
+
+  @Override
+  protected void executeJob() {
+    if (isExecutableAt != DUE)
+      Time.set(isExecutableAt);
+    log();
+    try {
+      action.execute(delegate);
+    } catch (Exception e) {
+      throw e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
+    } finally {
+      Time.adopt();
+    }
+  }
+
+}
@@ -12,13 +12,19 @@ import java.util.Date;
  */
 public class TimerJobExecutable extends JobExecutable {
 
+  // corrected once, as timers are compared over and over again when
+  // ordering the agenda, and jobs with a changed due date get a new
+  // executable anyway
+  private Date isExecutableAt;
+
   public TimerJobExecutable(ProcessRunnerImpl runner, Job job) {
     super(runner, job);
+    this.isExecutableAt = Time.correct(job.getDuedate());
   }
 
   @Override
   public Date isExecutableAt() {
-    return Time.correct(delegate.getDuedate());
+    return isExecutableAt;
   }
 
   @Override
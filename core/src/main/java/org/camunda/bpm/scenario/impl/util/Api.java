@@ -33,6 +33,7 @@ public class Api {
   // maps signatures to a "supported" Boolean, true means supported.
   // false and null means not supported, but null means that a warning
   // was already logged, too. We don't want to warn a thousand times.
+  // Guarded by itself, as scenarios may be executed in parallel.
   private static Map<String, Boolean> support = new HashMap<String, Boolean>();
 
   private Api(String className, String methodName, Class<?>... parameterTypes) {
@@ -40,8 +41,10 @@ public class Api {
     this.methodName = methodName;
     this.parameterTypes = parameterTypes;
     this.signature = signature();
-    if (!support.containsKey(signature))
-      support.put(signature, supported());
+    synchronized (support) {
+      if (!support.containsKey(signature))
+        support.put(signature, supported());
+    }
   }
 
   public static Api feature(String className) {
@@ -67,16 +70,21 @@ public class Api {
   }
 
   public boolean warn(String message) {
-    Boolean supported = support.get(signature);
-    if (supported != null && !supported) {
-      support.put(signature, null);
-      log.warning(message);
+    synchronized (support) {
+      Boolean supported = support.get(signature);
+      if (supported != null && !supported) {
+        support.put(signature, null);
+        log.warning(message);
+      }
     }
     return isSupported();
   }
 
   public boolean isSupported() {
-    Boolean s = support.get(signature);
+    Boolean s;
+    synchronized (support) {
+      s = support.get(signature);
+    }
     return s != null && s;
   }
 
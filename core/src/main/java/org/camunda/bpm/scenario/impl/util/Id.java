@@ -0,0 +1,91 @@
+package org.camunda.bpm.scenario.impl.util;
+
+import java.util.UUID;
+
+/**
+ * Engine generated id, parsed once into a key ordered by the creation
+ * of the entities identified. Supports the ids of the DbIdGenerator
+ * (numbers) as well as those of the StrongUuidGenerator (time based
+ * UUIDs, which are ordered by their timestamps instead of their bits).
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public final class Id implements Comparable<Id> {
+
+  private final long high;
+  private final long low;
+
+  private Id(long high, long low) {
+    this.high = high;
+    this.low = low;
+  }
+
+  public static Id of(String id) {
+    String string = id.substring(id.lastIndexOf(':') + 1);
+    if (isNumber(string)) {
+      return new Id(Long.parseLong(string), 0);
+    } else if (isUuid(string)) {
+      UUID uuid = UUID.fromString(string);
+      return uuid.version() == 1
+        ? new Id(uuid.timestamp(), uuid.getLeastSignificantBits())
+        : new Id(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+    throw new IllegalArgumentException("You seem to use an unsupported ID generator.");
+  }
+
+  long high() {
+    return high;
+  }
+
+  // zero for numeric ids, never zero for uuids
+  long low() {
+    return low;
+  }
+
+  @Override
+  public int compareTo(Id other) {
+    if (high != other.high)
+      return high < other.high ? -1 : 1;
+    if (low != other.low)
+      return low < other.low ? -1 : 1;
+    return 0;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof Id && high == ((Id) other).high && low == ((Id) other).low;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (high ^ (high >>> 32) ^ low ^ (low >>> 32));
+  }
+
+  // numbers which might exceed a long are not supported
+  private static boolean isNumber(String string) {
+    if (string.isEmpty() || string.length() > 18)
+      return false;
+    for (int i = 0; i < string.length(); i++) {
+      char c = string.charAt(i);
+      if (c < '0' || c > '9')
+        return false;
+    }
+    return true;
+  }
+
+  private static boolean isUuid(String string) {
+    if (string.length() != 36)
+      return false;
+    for (int i = 0; i < string.length(); i++) {
+      char c = string.charAt(i);
+      if (i == 8 || i == 13 || i == 18 || i == 23) {
+        if (c != '-')
+          return false;
+      } else if (Character.digit(c, 16) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
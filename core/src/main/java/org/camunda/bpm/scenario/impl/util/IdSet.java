@@ -0,0 +1,95 @@
+package org.camunda.bpm.scenario.impl.util;
+
+/**
+ * Set of engine generated ids, kept as primitive longs instead of
+ * strings. Ids of the DbIdGenerator take one long each, the UUIDs of
+ * the StrongUuidGenerator a pair of longs. Both live in open addressed
+ * tables which grow as needed, ids can't be removed again.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public final class IdSet {
+
+  private static final int CAPACITY = 16;
+
+  // numeric ids plus one, so that zero marks free slots
+  private long[] numbers = new long[CAPACITY];
+  private int numbersSize;
+
+  // high and low bits of uuids, whose low bits are never zero
+  private long[] pairs;
+  private int pairsSize;
+
+  /**
+   * @return true in case the id provided was not contained before.
+   */
+  public boolean add(String id) {
+    Id key = Id.of(id);
+    if (key.low() == 0) {
+      if (2 * (numbersSize + 1) > numbers.length)
+        numbers = grow(numbers, 1);
+      if (!put(numbers, 1, key.high() + 1, 0))
+        return false;
+      numbersSize++;
+    } else {
+      if (pairs == null)
+        pairs = new long[2 * CAPACITY];
+      if (2 * (pairsSize + 1) > pairs.length / 2)
+        pairs = grow(pairs, 2);
+      if (!put(pairs, 2, key.high(), key.low()))
+        return false;
+      pairsSize++;
+    }
+    return true;
+  }
+
+  public boolean contains(String id) {
+    Id key = Id.of(id);
+    if (key.low() == 0)
+      return slot(numbers, 1, key.high() + 1, 0) >= 0;
+    return pairs != null && slot(pairs, 2, key.high(), key.low()) >= 0;
+  }
+
+  public int size() {
+    return numbersSize + pairsSize;
+  }
+
+  // Returns the index of the key provided, or the complement of the
+  // index of the free slot it would take
+  private static int slot(long[] table, int width, long high, long low) {
+    int mask = table.length / width - 1;
+    int i = hash(high, low) & mask;
+    while (table[i * width] != 0 || (width == 2 && table[i * width + 1] != 0)) {
+      if (table[i * width] == high && (width == 1 || table[i * width + 1] == low))
+        return i * width;
+      i = (i + 1) & mask;
+    }
+    return -(i * width) - 1;
+  }
+
+  private static boolean put(long[] table, int width, long high, long low) {
+    int slot = slot(table, width, high, low);
+    if (slot >= 0)
+      return false;
+    table[-slot - 1] = high;
+    if (width == 2)
+      table[-slot] = low;
+    return true;
+  }
+
+  private static long[] grow(long[] table, int width) {
+    long[] grown = new long[table.length * 2];
+    for (int i = 0; i < table.length; i += width) {
+      if (table[i] != 0 || (width == 2 && table[i + 1] != 0))
+        put(grown, width, table[i], width == 2 ? table[i + 1] : 0);
+    }
+    return grown;
+  }
+
+  // spreads the bits of sequential numbers over the whole table
+  private static int hash(long high, long low) {
+    long h = (high ^ low) * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+}
@@ -1,65 +1,240 @@
 package org.camunda.bpm.scenario.impl.util;
 
+import org.camunda.bpm.scenario.spi.LogSink;
+import org.camunda.bpm.scenario.spi.LogSink.Level;
+import org.camunda.bpm.scenario.spi.LogSinks;
+
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Scenario log. Log actions are emitted as structured events to a
+ * pluggable {@link LogSink}, set by means of {@link LogSinks}. Messages
+ * are just formatted when a sink actually renders an event.
+ */
 public abstract class Log {
 
+  public static final String SINK = "org.camunda.bpm.scenario.log";
+
   private static String LOGGER = "org.camunda.bpm.scenario";
-  private static ScenarioLog scenarioLog = Api.feature("org.slf4j.Logger").isSupported() ? new Slf4jLog() : new JavaLog();
+  private static volatile LogSink sink = sink(System.getProperty(SINK));
+  private static ThreadLocal<LogSink> threadSink = new ThreadLocal<LogSink>();
+
+  /**
+   * Sets the sink shared by all threads not using a sink of their own.
+   */
+  public static void sink(LogSink sink) {
+    Log.sink = sink != null ? sink : off();
+  }
+
+  /**
+   * @return the sink shared by all threads not using a sink of their own.
+   */
+  public static LogSink sink() {
+    return sink;
+  }
+
+  /**
+   * Sets the sink of the current thread, or lets it use the shared
+   * sink again in case null is provided.
+   */
+  public static void threadSink(LogSink sink) {
+    if (sink != null) {
+      threadSink.set(sink);
+    } else {
+      threadSink.remove();
+    }
+  }
 
-  private static String space;
-  private static String prefix;
+  private static LogSink sink(String name) {
+    if ("off".equals(name))
+      return off();
+    if ("jul".equals(name) || !Api.feature("org.slf4j.Logger").isSupported())
+      return new JavaSink();
+    return new Slf4jSink();
+  }
 
-  private interface ScenarioLog {
+  public static LogSink off() {
+    return new LogSink() {
 
-    boolean isDebugEnabled();
-    void debug(String message);
-    void info(String message);
+      @Override
+      public boolean isEnabled(Level level) {
+        return false;
+      }
 
+      @Override
+      public void log(Event event) {
+      }
+
+    };
   }
 
-  private static class Slf4jLog implements ScenarioLog {
+  private static class Slf4jSink implements LogSink {
 
     org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(LOGGER);
 
     @Override
-    public boolean isDebugEnabled() {
-      return log.isDebugEnabled();
+    public boolean isEnabled(Level level) {
+      return level == Level.DEBUG ? log.isDebugEnabled() : log.isInfoEnabled();
     }
 
     @Override
-    public void debug(String message) {
-      log.debug(message);
+    public void log(Event event) {
+      if (event.getLevel() == Level.DEBUG) {
+        log.debug(event.getMessage());
+      } else {
+        log.info(event.getMessage());
+      }
     }
 
+  }
+
+  private static class JavaSink implements LogSink {
+
+    Logger log = Logger.getLogger(LOGGER);
+
     @Override
-    public void info(String message) {
-      log.info(message);
+    public boolean isEnabled(Level level) {
+      return log.isLoggable(level(level));
+    }
+
+    @Override
+    public void log(Event event) {
+      log.log(level(event.getLevel()), event.getMessage());
+    }
+
+    private java.util.logging.Level level(Level level) {
+      return level == Level.DEBUG ? java.util.logging.Level.FINE : java.util.logging.Level.INFO;
     }
 
   }
 
-  private static class JavaLog implements ScenarioLog {
+  // indentation of the log of the scenario executed by the current thread:
+  // the number of fast-forwards and whether the last action fast-forwarded
+  private static class Indentation {
 
-    Logger log = Logger.getLogger(LOGGER);
+    int depth;
+    boolean forwarded;
+
+  }
+
+  private static ThreadLocal<Indentation> indentation = new ThreadLocal<Indentation>() {
+    @Override
+    protected Indentation initialValue() {
+      return new Indentation();
+    }
+  };
+
+  private static ThreadLocal<Event> events = new ThreadLocal<Event>() {
+    @Override
+    protected Event initialValue() {
+      return new Event();
+    }
+  };
+
+  /**
+   * Event of the scenario log, rendered to a message on demand.
+   */
+  public static class Event implements LogSink.Event {
+
+    private Action action;
+    private String activityType;
+    private String activityName;
+    private String activityId;
+    private String processDefinitionKey;
+    private String processInstanceId;
+    private String actionId;
+    private Date time;
+    private Date now;
+    private int depth;
+    private boolean forwarded;
+
+    public void copy(Event event) {
+      action = event.action;
+      activityType = event.activityType;
+      activityName = event.activityName;
+      activityId = event.activityId;
+      processDefinitionKey = event.processDefinitionKey;
+      processInstanceId = event.processInstanceId;
+      actionId = event.actionId;
+      time = event.time;
+      now = event.now;
+      depth = event.depth;
+      forwarded = event.forwarded;
+    }
+
+    @Override
+    public String getAction() {
+      return action.name();
+    }
+
+    @Override
+    public Level getLevel() {
+      return action.level;
+    }
+
+    @Override
+    public String getActivityType() {
+      return activityType;
+    }
 
     @Override
-    public boolean isDebugEnabled() {
-      return log.isLoggable(Level.FINE);
+    public String getActivityName() {
+      return activityName;
     }
 
     @Override
-    public void debug(String message) {
-      log.log(Level.FINE, message);
+    public String getActivityId() {
+      return activityId;
     }
 
     @Override
-    public void info(String message) {
-      log.log(Level.INFO, message);
+    public String getProcessDefinitionKey() {
+      return processDefinitionKey;
+    }
+
+    @Override
+    public String getProcessInstanceId() {
+      return processInstanceId;
+    }
+
+    @Override
+    public String getActionId() {
+      return actionId;
+    }
+
+    @Override
+    public Date getTime() {
+      return time;
+    }
+
+    @Override
+    public Date getNow() {
+      return now;
+    }
+
+    @Override
+    public String getMessage() {
+      return action.message(this);
+    }
+
+    private String space() {
+      return space(depth);
+    }
+
+    // a fast-forward forks off the indentation it came from
+    private String prefix() {
+      return forwarded ? space(depth - 1) + "|--" : space(depth) + "|";
+    }
+
+    private static String space(int depth) {
+      StringBuilder space = new StringBuilder(2 * depth);
+      for (int i = 0; i < depth; i++) {
+        space.append("  ");
+      }
+      return space.toString();
     }
 
   }
@@ -67,7 +242,6 @@ public abstract class Log {
   private interface ScenarioLoggable {
 
     String instanceFormat = "%s %s %s LABEL(%s @ %s # %s)";
-    DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd' 'HH:mm:ss");
 
     void log(String activityType, String activityName, String activityId, String processDefinitionKey, String processInstanceId, String actionId, Date time);
 
@@ -75,68 +249,64 @@ public abstract class Log {
 
   public enum Action implements ScenarioLoggable {
 
-    StartingAt {
+    StartingAt(Level.INFO) {
 
-      private void init() {
-        space = "";
-        prefix = "|";
+      String message(Event e) {
+        return String.format("%s Starting scenario at %s", "*", format(e.now));
       }
 
-      public void log(String activityType, String activityName, String activityId, String processDefinitionKey, String processInstanceId, String actionId, Date time) {
-        init();
-        scenarioLog.info(String.format("%s Starting scenario at %s", "*", dateFormat.format(Time.get())));
+      void indent(Indentation i) {
+        indentation.remove();
       }
 
     },
 
-    FastForward {
+    FastForward(Level.INFO) {
 
-      public void log(String activityType, String activityName, String activityId, String processDefinitionKey, String processInstanceId, String actionId, Date time) {
-        scenarioLog.info(String.format("%s Fast-forwarding scenario to %s", prefix, dateFormat.format(Time.get())));
-        prefix = space + "|--";
-        space = space + "  ";
+      String message(Event e) {
+        return String.format("%s Fast-forwarding scenario to %s", e.prefix(), format(e.now));
+      }
+
+      void indent(Indentation i) {
+        i.forwarded = true;
+        i.depth++;
       }
 
     },
 
-    FinishingAt {
+    FinishingAt(Level.INFO) {
 
-      private void init() {
-        space = "";
-        prefix = "|";
+      String message(Event e) {
+        return String.format("%s Finishing scenario at %s", e.space() + "*", format(e.now));
       }
 
-      public void log(String activityType, String activityName, String activityId, String processDefinitionKey, String processInstanceId, String actionId, Date time) {
-        scenarioLog.info(String.format("%s Finishing scenario at %s", space + "*", dateFormat.format(Time.get())));
-        init();
+      void indent(Indentation i) {
+        indentation.remove();
       }
 
     },
 
-    ActingOn {
+    ActingOn(Level.INFO) {
 
-      public void log(String activityType, String activityName, String activityId, String processDefinitionKey, String processInstanceId, String actionId, Date time) {
-        String message;
-        if (activityName != null) {
-          message = String.format(ScenarioLoggable.instanceFormat.replace("LABEL", "'%s' "),
-              space + "*",
+      String message(Event e) {
+        if (e.activityName != null) {
+          return String.format(ScenarioLoggable.instanceFormat.replace("LABEL", "'%s' "),
+              e.space() + "*",
               Strings.rightpad(toString(), 9),
-              Strings.rightpad(activityType, 18),
-              Strings.trimAll(activityName),
-              activityId,
-              processDefinitionKey,
-              processInstanceId);
+              Strings.rightpad(e.activityType, 18),
+              Strings.trimAll(e.activityName),
+              e.activityId,
+              e.processDefinitionKey,
+              e.processInstanceId);
         } else {
-          message = String.format(ScenarioLoggable.instanceFormat.replace("LABEL", ""),
-              space + "*",
+          return String.format(ScenarioLoggable.instanceFormat.replace("LABEL", ""),
+              e.space() + "*",
               Strings.rightpad(toString(), 9),
-              Strings.rightpad(activityType, 18),
-              activityId,
-              processDefinitionKey,
-              processInstanceId);
+              Strings.rightpad(e.activityType, 18),
+              e.activityId,
+              e.processDefinitionKey,
+              e.processInstanceId);
         }
-        scenarioLog.info(message);
-        prefix = space + "|";
       }
 
       @Override
@@ -146,125 +316,130 @@ public abstract class Log {
 
     },
 
-    Deferring_Action {
-
-      public void log(String activityType, String activityName, String activityId, String processDefinitionKey, String processInstanceId, String actionId, Date time) {
-        if (scenarioLog.isDebugEnabled()) {
-          String message = String.format("%s %s %s '%s' until %s (%s @ %s # %s : %s)",
-              prefix,
-              Strings.rightpad("Deferring", 9),
-              Strings.rightpad("action on", 18),
-              Strings.trimAll(activityName),
-              dateFormat.format(time),
-              activityId,
-              processDefinitionKey,
-              processInstanceId,
-              actionId);
-          scenarioLog.debug(message);
-          prefix = space + "|";
-        }
+    Deferring_Action(Level.DEBUG) {
+
+      String message(Event e) {
+        return String.format("%s %s %s '%s' until %s (%s @ %s # %s : %s)",
+            e.prefix(),
+            Strings.rightpad("Deferring", 9),
+            Strings.rightpad("action on", 18),
+            Strings.trimAll(e.activityName),
+            format(e.time),
+            e.activityId,
+            e.processDefinitionKey,
+            e.processInstanceId,
+            e.actionId);
       }
 
     },
 
-    Executing_Action {
+    Executing_Action(Level.INFO) {
 
-      public void log(String activityType, String activityName, String activityId, String processDefinitionKey, String processInstanceId, String actionId, Date time) {
-        String message = String.format("%s %s %s '%s' (%s @ %s # %s : %s)",
-            prefix,
+      String message(Event e) {
+        return String.format("%s %s %s '%s' (%s @ %s # %s : %s)",
+            e.prefix(),
             Strings.rightpad("Executing", 9),
             Strings.rightpad("deferred action on", 18),
-            Strings.trimAll(activityName),
-            activityId,
-            processDefinitionKey,
-            processInstanceId,
-            actionId);
-        scenarioLog.info(message);
-        prefix = space + "|";
+            Strings.trimAll(e.activityName),
+            e.activityId,
+            e.processDefinitionKey,
+            e.processInstanceId,
+            e.actionId);
       }
 
     },
 
-    Executing_Job {
-
-      public void log(String activityType, String activityName, String activityId, String processDefinitionKey, String processInstanceId, String actionId, Date time) {
-        if (scenarioLog.isDebugEnabled()) {
-          String message = String.format("%s %s %s (%s @ %s # %s)",
-              prefix,
-              Strings.rightpad(toString(), 9),
-              Strings.rightpad(activityType, 18),
-              Strings.trimAll(activityName),
-              processDefinitionKey,
-              processInstanceId
-          );
-          scenarioLog.debug(message);
-          prefix = space + "|";
-        }
+    Executing_Job(Level.DEBUG) {
+
+      String message(Event e) {
+        return String.format("%s %s %s (%s @ %s # %s)",
+            e.prefix(),
+            Strings.rightpad(toString(), 9),
+            Strings.rightpad(e.activityType, 18),
+            Strings.trimAll(e.activityName),
+            e.processDefinitionKey,
+            e.processInstanceId
+        );
       }
 
     },
 
-    Started {
+    Started(Level.DEBUG),
 
-      public void log(String activityType, String activityName, String activityId, String processDefinitionKey, String processInstanceId, String actionId, Date time) {
-        if (scenarioLog.isDebugEnabled()) {
-          scenarioLog.debug(message(this, activityType, activityName, activityId, processDefinitionKey, processInstanceId));
-          prefix = space + "|";
-        }
-      }
+    Finished(Level.INFO),
 
-    },
+    Canceled(Level.INFO),
 
-    Finished {
+    Completed(Level.INFO);
 
-      public void log(String activityType, String activityName, String activityId, String processDefinitionKey, String processInstanceId, String actionId, Date time) {
-        scenarioLog.info(message(this, activityType, activityName, activityId, processDefinitionKey, processInstanceId));
-        prefix = space + "|";
-      }
-
-    },
+    private Level level;
 
-    Canceled {
+    Action(Level level) {
+      this.level = level;
+    }
 
-      public void log(String activityType, String activityName, String activityId, String processDefinitionKey, String processInstanceId, String actionId, Date time) {
-        scenarioLog.info(message(this, activityType, activityName, activityId, processDefinitionKey, processInstanceId));
-        prefix = space + "|";
+    public void log(String activityType, String activityName, String activityId, String processDefinitionKey, String processInstanceId, String actionId, Date time) {
+      Indentation i = indentation.get();
+      LogSink sink = threadSink.get();
+      if (sink == null)
+        sink = Log.sink;
+      if (sink.isEnabled(level)) {
+        Event e = events.get();
+        e.action = this;
+        e.activityType = activityType;
+        e.activityName = activityName;
+        e.activityId = activityId;
+        e.processDefinitionKey = processDefinitionKey;
+        e.processInstanceId = processInstanceId;
+        e.actionId = actionId;
+        e.time = time;
+        e.now = Time.get();
+        e.depth = i.depth;
+        e.forwarded = i.forwarded;
+        sink.log(e);
+        indent(i);
+      } else if (level == Level.INFO) {
+        // debug actions just indent what follows when they are shown
+        indent(i);
       }
+    }
 
-    },
-
-    Completed {
-
-      public void log(String activityType, String activityName, String activityId, String processDefinitionKey, String processInstanceId, String actionId, Date time) {
-        scenarioLog.info(message(this, activityType, activityName, activityId, processDefinitionKey, processInstanceId));
-        prefix = space + "|";
+    String message(Event e) {
+      if (e.activityName != null && !e.activityName.equals("")) {
+        return String.format(ScenarioLoggable.instanceFormat.replace("LABEL", "'%s' "),
+            e.prefix(),
+            Strings.rightpad(toString(), 9),
+            Strings.rightpad(e.activityType, 18),
+            Strings.trimAll(e.activityName),
+            e.activityId,
+            e.processDefinitionKey,
+            e.processInstanceId);
+      } else {
+        return String.format(ScenarioLoggable.instanceFormat.replace("LABEL", ""),
+            e.prefix(),
+            Strings.rightpad(toString(), 9),
+            Strings.rightpad(e.activityType, 18),
+            e.activityId,
+            e.processDefinitionKey,
+            e.processInstanceId);
       }
+    }
 
-    },
+    void indent(Indentation i) {
+      i.forwarded = false;
+    }
 
   }
 
-  private static String message(Action action, String activityType, String activityName, String activityId, String processDefinitionKey, String processInstanceId) {
-    String message;
-    if (activityName != null && !activityName.equals("")) {
-      message = String.format(ScenarioLoggable.instanceFormat.replace("LABEL", "'%s' "),
-          prefix,
-          Strings.rightpad(action.toString(), 9),
-          Strings.rightpad(activityType, 18),
-          Strings.trimAll(activityName),
-          activityId,
-          processDefinitionKey,
-          processInstanceId);
-    } else {
-      message = String.format(ScenarioLoggable.instanceFormat.replace("LABEL", ""),
-          prefix,
-          Strings.rightpad(action.toString(), 9),
-          Strings.rightpad(activityType, 18),
-          activityId,
-          processDefinitionKey,
-          processInstanceId);
+  private static ThreadLocal<DateFormat> dateFormat = new ThreadLocal<DateFormat>() {
+    @Override
+    protected DateFormat initialValue() {
+      return new SimpleDateFormat("yyyy-MM-dd' 'HH:mm:ss");
     }
-    return message;
+  };
+
+  private static String format(Date date) {
+    return dateFormat.get().format(date);
   }
 
 }
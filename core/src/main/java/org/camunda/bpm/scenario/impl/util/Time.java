@@ -4,36 +4,172 @@ import org.camunda.bpm.engine.impl.calendar.DurationHelper;
 import org.camunda.bpm.engine.impl.util.ClockUtil;
 import org.camunda.bpm.scenario.impl.util.Log.Action;
 
-import java.util.Calendar;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.Duration;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author Martin Schimak <martin.schimak@plexiti.com>
  */
 public class Time {
 
+  // The engine's clock is shared by the whole JVM, even by several
+  // process engines, so a lock per engine would not keep scenarios from
+  // seeing each other's time. Every scenario thread therefore keeps its
+  // own time and lends it to the engine's clock just while working with
+  // the engine and holding this lock. With the ScenarioProcessEnginePlugin,
+  // the lock is held per engine command, otherwise per scenario step, so
+  // scenarios running in parallel threads are serialized at that grain.
+  // The time a thread waited for the lock is reported as the clock nanos
+  // of the scenario metrics.
+  private static final ReentrantLock clock = new ReentrantLock();
+  private static final ThreadLocal<Date> current = new ThreadLocal<Date>();
+  private static final ThreadLocal<long[]> waited = new ThreadLocal<long[]>() {
+    @Override
+    protected long[] initialValue() {
+      return new long[1];
+    }
+  };
+
+  // The engine time last lent to or taken back from the engine's clock,
+  // guarded by the clock. Differs from the clock's time in case someone
+  // set the clock without holding it, unknown when the clock was reset.
+  private static final long UNKNOWN = Long.MIN_VALUE;
+  private static long lent = UNKNOWN;
+
+  public static void acquire() {
+    lock();
+    if (clock.getHoldCount() == 1)
+      take();
+    lend();
+  }
+
+  public static void release() {
+    if (current.get() != null) {
+      current.set(ClockUtil.getCurrentTime());
+      lent = current.get().getTime();
+    }
+    clock.unlock();
+  }
+
+  /**
+   * Takes over the time of the engine's clock in case an action set the
+   * clock by itself, e.g. by ClockUtil.setCurrentTime(). Without holding
+   * the clock, which is the case with the ScenarioProcessEnginePlugin
+   * lending it per command only, the time set would otherwise be lost
+   * with the next command. Actions of scenarios running in parallel
+   * threads must not set the clock by themselves, though.
+   */
+  public static void adopt() {
+    lock();
+    try {
+      take();
+    } finally {
+      clock.unlock();
+    }
+  }
+
+  private static void lock() {
+    if (!clock.tryLock()) {
+      long start = System.nanoTime();
+      clock.lock();
+      waited.get()[0] += System.nanoTime() - start;
+    }
+  }
+
+  private static void take() {
+    if (current.get() != null && lent != UNKNOWN && ClockUtil.getCurrentTime().getTime() != lent)
+      current.set(ClockUtil.getCurrentTime());
+  }
+
+  private static void lend() {
+    Date time = current.get();
+    if (time != null) {
+      ClockUtil.setCurrentTime(time);
+      lent = time.getTime();
+    }
+  }
+
+  /**
+   * @return nanoseconds the current thread waited so far for the
+   * engine's clock, lent to another thread at that time
+   */
+  public static long waitedNanos() {
+    return waited.get()[0];
+  }
+
+  // Periods of a fixed length in milliseconds, as parsed before. The
+  // length of periods including days, months or years depends on the
+  // calendar, so these are left to the engine's DurationHelper.
+  private static final Map<String, Long> periods = new ConcurrentHashMap<String, Long>();
+  private static final Long VARIABLE = Long.MIN_VALUE;
+  private static final int PERIODS = 1000;
+  private static DatatypeFactory datatypeFactory;
+
   public static Date dateAfter(String period) {
+    Long millis = periods.get(period);
+    if (millis == null)
+      millis = parse(period);
+    if (!VARIABLE.equals(millis))
+      return new Date(get().getTime() + millis);
+    acquire();
     try {
       return new DurationHelper(period).getDateAfter();
     } catch (Exception e) {
       throw new RuntimeException(e);
+    } finally {
+      release();
+    }
+  }
+
+  private static synchronized Long parse(String period) {
+    Long millis = VARIABLE;
+    if (period.startsWith("P")) {
+      try {
+        if (datatypeFactory == null)
+          datatypeFactory = DatatypeFactory.newInstance();
+        Duration duration = datatypeFactory.newDuration(period);
+        if (duration.getYears() == 0 && duration.getMonths() == 0 && duration.getDays() == 0)
+          millis = duration.getTimeInMillis(new Date(0));
+      } catch (Exception e) {
+        // left to the DurationHelper to complain about
+      }
     }
+    if (periods.size() < PERIODS)
+      periods.put(period, millis);
+    return millis;
   }
 
   public static void set(Date time) {
-    Date currentTime = ClockUtil.getCurrentTime();
-    ClockUtil.setCurrentTime(time);
+    Date currentTime = get();
+    current.set(time);
+    // the engine's clock shows the new time right away, after waiting
+    // for another thread working with the engine right now
+    lock();
+    lend();
+    release();
     if (!time.equals(currentTime))
       Action.FastForward.log(null, null, null, null, null, null, null);
   }
 
   public static Date get() {
-    return ClockUtil.getCurrentTime();
+    Date time = current.get();
+    return time == null || clock.isHeldByCurrentThread() ? ClockUtil.getCurrentTime() : time;
   }
 
   public static void reset() {
     Action.FinishingAt.log(null, null, null, null, null, null, null);
-    ClockUtil.reset();
+    current.remove();
+    acquire();
+    try {
+      ClockUtil.reset();
+      lent = UNKNOWN;
+    } finally {
+      release();
+    }
   }
 
   // ***
@@ -51,21 +187,31 @@ public class Time {
   private static final int milliseconds = 500;
 
   public static Date correct(Date date) {
-    Calendar cal = Calendar.getInstance();
-    cal.setTime(date);
-    if (cal.get(Calendar.MILLISECOND) != milliseconds) {
-      return new Date(date.getTime() + milliseconds);
-    } else {
-      return date;
-    }
+    long time = date.getTime();
+    long corrected = correct(time);
+    return corrected == time ? date : new Date(corrected);
+  }
+
+  public static long correct(long time) {
+    return millisecond(time) != milliseconds ? time + milliseconds : time;
   }
 
   public static void init() {
-    Calendar cal = Calendar.getInstance();
-    cal.set(Calendar.MILLISECOND, milliseconds);
-    ClockUtil.setCurrentTime(cal.getTime());
+    long now = System.currentTimeMillis();
+    current.set(new Date(now - millisecond(now) + milliseconds));
+    // the clock may have been reset by others since we last lent it
+    lock();
+    lent = UNKNOWN;
+    clock.unlock();
     Log.Action.StartingAt.log(null, null, null, null, null, null, null);
   }
+
+  // time zones are offset by whole seconds, so the millisecond of the
+  // second is the same as with a calendar
+  private static long millisecond(long time) {
+    long millisecond = time % 1000;
+    return millisecond < 0 ? millisecond + 1000 : millisecond;
+  }
   // ***
 
 }
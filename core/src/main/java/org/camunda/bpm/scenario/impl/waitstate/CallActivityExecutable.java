@@ -22,6 +22,13 @@ public class CallActivityExecutable extends AbstractProcessInstanceDelegate {
     return getRuntimeService().createProcessInstanceQuery().processInstanceId(historicDelegate.getCalledProcessInstanceId()).singleResult();
   }
 
+  // Once running, the call activity stands for the called process
+  // instance of its runner, also after that instance already ended.
+  @Override
+  protected ProcessInstance delegate() {
+    return delegate != null ? delegate : super.delegate();
+  }
+
   @Override
   protected Action<ProcessInstanceDelegate> action(final ProcessScenario scenario) {
     final ProcessRunnerImpl runner = (ProcessRunnerImpl) scenario.runsCallActivity(getActivityId());
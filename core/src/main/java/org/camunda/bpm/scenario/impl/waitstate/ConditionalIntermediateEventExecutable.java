@@ -29,6 +29,7 @@ public class ConditionalIntermediateEventExecutable extends AbstractProcessInsta
     return scenario.waitsAtConditionalIntermediateEvent(getActivityId());
   }
 
+  @SuppressWarnings("unchecked")
   public void execute() {
     Action action = action();
     Time.set(isExecutableAt());
@@ -43,7 +44,7 @@ public class ConditionalIntermediateEventExecutable extends AbstractProcessInsta
             null,
             null
         );
-        action.execute(this);
+        act(action);
       }
     } catch (Exception e) {
       throw new RuntimeException(e);
@@ -17,11 +17,8 @@ import java.util.Map;
  */
 public class MessageIntermediateCatchEventExecutable extends AbstractEventSubscriptionDelegate {
 
-  private EventSubscriptionDelegate eventSubscriptionDelegate;
-
   public MessageIntermediateCatchEventExecutable(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
     super(runner, instance);
-    eventSubscriptionDelegate = EventSubscriptionDelegateImpl.newInstance(this, delegate);
   }
 
   @Override
@@ -36,12 +33,12 @@ public class MessageIntermediateCatchEventExecutable extends AbstractEventSubscr
 
   @Override
   public void receive() {
-    eventSubscriptionDelegate.receive();
+    EventSubscriptionDelegateImpl.newInstance(this, delegate()).receive();
   }
 
   @Override
   public void receive(Map<String, Object> variables) {
-    eventSubscriptionDelegate.receive(variables);
+    EventSubscriptionDelegateImpl.newInstance(this, delegate()).receive(variables);
   }
 
 }
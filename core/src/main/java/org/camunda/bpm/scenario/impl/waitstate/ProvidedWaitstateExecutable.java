@@ -0,0 +1,44 @@
+package org.camunda.bpm.scenario.impl.waitstate;
+
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.scenario.ProcessScenario;
+import org.camunda.bpm.scenario.act.Action;
+import org.camunda.bpm.scenario.impl.ProcessRunnerImpl;
+import org.camunda.bpm.scenario.impl.WaitstateExecutable;
+
+/**
+ * Waitstate acted upon by an action of a registered
+ * {@link org.camunda.bpm.scenario.spi.WaitstateFactory}.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ProvidedWaitstateExecutable extends WaitstateExecutable<HistoricActivityInstance> {
+
+  private Action<HistoricActivityInstance> action;
+
+  public ProvidedWaitstateExecutable(ProcessRunnerImpl runner, HistoricActivityInstance instance, Action<HistoricActivityInstance> action) {
+    super(runner, instance);
+    this.action = action;
+  }
+
+  @Override
+  protected Action<HistoricActivityInstance> action(ProcessScenario scenario) {
+    return action;
+  }
+
+  @Override
+  protected void act(Action<Object> action) throws Exception {
+    super.act(new Action<Object>() {
+      @Override
+      public void execute(Object executable) throws Exception {
+        ProvidedWaitstateExecutable.this.action.execute(historicDelegate);
+      }
+    });
+  }
+
+  @Override
+  protected HistoricActivityInstance getDelegate() {
+    return historicDelegate;
+  }
+
+}
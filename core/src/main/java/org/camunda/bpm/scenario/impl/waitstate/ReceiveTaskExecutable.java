@@ -32,7 +32,7 @@ public class ReceiveTaskExecutable extends MessageIntermediateCatchEventExecutab
 
   @Override
   public void receive() {
-    EventSubscription eventSubscription = getDelegate();
+    EventSubscription eventSubscription = delegate();
     if (eventSubscription != null) {
       super.receive();
     } else {
@@ -42,7 +42,7 @@ public class ReceiveTaskExecutable extends MessageIntermediateCatchEventExecutab
 
   @Override
   public void receive(Map<String, Object> variables) {
-    EventSubscription eventSubscription = getDelegate();
+    EventSubscription eventSubscription = delegate();
     if (eventSubscription != null) {
       super.receive(variables);
     } else {
@@ -57,7 +57,7 @@ public class ReceiveTaskExecutable extends MessageIntermediateCatchEventExecutab
 
   @Override
   public String getEventType() {
-    if (delegate == null)
+    if (delegate() == null)
       throw new UnsupportedOperationException("Not supported for Receive Tasks " +
           "used without a message event subscription.");
       return super.getEventType();
@@ -65,7 +65,7 @@ public class ReceiveTaskExecutable extends MessageIntermediateCatchEventExecutab
 
   @Override
   public String getEventName() {
-    if (delegate == null)
+    if (delegate() == null)
       throw new UnsupportedOperationException("Not supported for Receive Tasks " +
           "used without a message event subscription.");
     return super.getEventName();
@@ -73,7 +73,7 @@ public class ReceiveTaskExecutable extends MessageIntermediateCatchEventExecutab
 
   @Override
   public String getProcessInstanceId() {
-    if (delegate == null)
+    if (delegate() == null)
       throw new UnsupportedOperationException("Not supported for Receive Tasks " +
           "used without a message event subscription.");
     return super.getProcessInstanceId();
@@ -81,7 +81,7 @@ public class ReceiveTaskExecutable extends MessageIntermediateCatchEventExecutab
 
   @Override
   public String getTenantId() {
-    if (delegate == null)
+    if (delegate() == null)
       throw new UnsupportedOperationException("Not supported for Receive Tasks " +
           "used without a message event subscription.");
     return super.getTenantId();
@@ -89,7 +89,7 @@ public class ReceiveTaskExecutable extends MessageIntermediateCatchEventExecutab
 
   @Override
   public Date getCreated() {
-    if (delegate == null)
+    if (delegate() == null)
       throw new UnsupportedOperationException("Not supported for Receive Tasks " +
           "used without a message event subscription.");
     return super.getCreated();
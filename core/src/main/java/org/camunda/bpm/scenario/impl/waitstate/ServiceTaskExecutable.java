@@ -1,13 +1,20 @@
 package org.camunda.bpm.scenario.impl.waitstate;
 
 
+import org.camunda.bpm.engine.ExternalTaskService;
 import org.camunda.bpm.engine.externaltask.ExternalTask;
+import org.camunda.bpm.engine.externaltask.ExternalTaskQueryTopicBuilder;
 import org.camunda.bpm.engine.history.HistoricActivityInstance;
 import org.camunda.bpm.scenario.ProcessScenario;
 import org.camunda.bpm.scenario.act.Action;
 import org.camunda.bpm.scenario.impl.ProcessRunnerImpl;
 import org.camunda.bpm.scenario.impl.delegate.AbstractExternalTaskDelegate;
+import org.camunda.bpm.scenario.impl.engine.ProcessDefinitions;
+import org.camunda.bpm.scenario.impl.util.Api;
+import org.camunda.bpm.scenario.impl.util.Time;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.Map;
 
 /**
@@ -16,6 +23,12 @@ import java.util.Map;
 public class ServiceTaskExecutable extends AbstractExternalTaskDelegate {
 
   private static final String WORKER_ID = "workerId";
+  // Long enough to outlast a scenario step, but far from overflowing
+  // when the engine adds it to the current time
+  private static final long LOCK_DURATION = 24 * 60 * 60 * 1000L;
+  // ExternalTaskService.lock(String, String, long) exists from 7.15 on,
+  // which is newer than the engine this module is compiled against
+  private static final Method LOCK = lock();
 
   public ServiceTaskExecutable(ProcessRunnerImpl runner, HistoricActivityInstance instance) {
     super(runner, instance);
@@ -31,31 +44,63 @@ public class ServiceTaskExecutable extends AbstractExternalTaskDelegate {
     return scenario.waitsAtServiceTask(getActivityId());
   }
 
+  // Locks just this external task where the engine allows to do so,
+  // otherwise all tasks of its topic (and process definition, where
+  // the engine allows to narrow the fetch). Tasks still locked by
+  // earlier fetches don't need to be fetched again.
   protected void fetchAndLock() {
-    getExternalTaskService().fetchAndLock(Integer.MAX_VALUE, WORKER_ID).topic(getDelegate().getTopicName(), Long.MAX_VALUE).execute();
+    ExternalTask task = delegate();
+    if (WORKER_ID.equals(task.getWorkerId()) && task.getLockExpirationTime() != null
+        && task.getLockExpirationTime().after(Time.get()))
+      return;
+    if (LOCK != null) {
+      try {
+        LOCK.invoke(getExternalTaskService(), task.getId(), WORKER_ID, LOCK_DURATION);
+        return;
+      } catch (InvocationTargetException e) {
+        throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+      } catch (IllegalAccessException e) {
+        throw new RuntimeException(e);
+      }
+    }
+    ExternalTaskQueryTopicBuilder fetch = getExternalTaskService().fetchAndLock(Integer.MAX_VALUE, WORKER_ID)
+      .topic(task.getTopicName(), LOCK_DURATION);
+    if (Api.feature(ExternalTaskQueryTopicBuilder.class.getName(), "processDefinitionId", String.class).isSupported())
+      fetch = fetch.processDefinitionId(task.getProcessDefinitionId());
+    fetch.execute();
+  }
+
+  private static Method lock() {
+    if (!Api.feature(ExternalTaskService.class.getName(), "lock", String.class, String.class, long.class).isSupported())
+      return null;
+    try {
+      return ExternalTaskService.class.getMethod("lock", String.class, String.class, long.class);
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
   }
 
   @Override
   public void complete() {
     fetchAndLock();
-    getExternalTaskService().complete(getDelegate().getId(), WORKER_ID);
+    getExternalTaskService().complete(delegate().getId(), WORKER_ID);
   }
 
   @Override
   public void complete(Map<String, Object> variables) {
     fetchAndLock();
-    getExternalTaskService().complete(getDelegate().getId(), WORKER_ID, variables);
+    getExternalTaskService().complete(delegate().getId(), WORKER_ID, variables);
   }
 
   @Override
   public void handleBpmnError(String errorCode) {
     fetchAndLock();
-    getExternalTaskService().handleBpmnError(getDelegate().getId(), WORKER_ID, errorCode);
+    getExternalTaskService().handleBpmnError(delegate().getId(), WORKER_ID, errorCode);
   }
 
   @Override
   public String getProcessDefinitionVersionTag() {
-    return getRepositoryService().getProcessDefinition(getProcessDefinitionId()).getVersionTag();
+    return ProcessDefinitions.get(runner.engine(), getProcessDefinitionId()).getVersionTag();
   }
 
   @Override
@@ -44,7 +44,7 @@ public class TimerIntermediateEventExecutable extends AbstractProcessInstanceDel
             null,
             null
         );
-        action.execute(this);
+        act(action);
       }
     } catch (Exception e) {
       throw e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
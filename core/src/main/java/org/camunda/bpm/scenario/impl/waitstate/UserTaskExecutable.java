@@ -30,12 +30,12 @@ public class UserTaskExecutable extends AbstractTaskDelegate {
 
   @Override
   public void complete() {
-    getTaskService().complete(getDelegate().getId());
+    getTaskService().complete(delegate().getId());
   }
 
   @Override
   public void complete(Map<String, Object> variables) {
-    getTaskService().complete(getDelegate().getId(), variables);
+    getTaskService().complete(delegate().getId(), variables);
   }
 
 }
@@ -3,6 +3,8 @@ package org.camunda.bpm.scenario.run;
 import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.scenario.ProcessScenario;
 import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.ScenarioBudget;
+import org.camunda.bpm.scenario.ScenarioListener;
 
 import java.util.Map;
 
@@ -22,6 +24,24 @@ public interface ProcessRunner extends Runner {
      */
     ExecutableRunner engine(ProcessEngine processEngine);
 
+    /**
+     * Register a listener to be notified about every step
+     * executed by the scenario run.
+     *
+     * @param listener to be notified
+     */
+    ExecutableRunner listen(ScenarioListener listener);
+
+    /**
+     * Register a budget the scenario run must not exceed.
+     * The scenario run fails with an assertion error in
+     * case it does.
+     *
+     * @param budget to be verified when the scenario run
+     * finished
+     */
+    ExecutableRunner budget(ScenarioBudget budget);
+
     /**
      * Execute the fully defined scenario run.
      *
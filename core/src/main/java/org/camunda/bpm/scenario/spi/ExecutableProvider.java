@@ -0,0 +1,28 @@
+package org.camunda.bpm.scenario.spi;
+
+import java.util.Map;
+
+/**
+ * Provides executables for custom activity or job handler types. In
+ * order to register your own, implement this interface and declare
+ * your implementation in a file named
+ * 'META-INF/services/org.camunda.bpm.scenario.spi.ExecutableProvider'
+ * on your classpath. Factories provided that way take precedence over
+ * the built-in ones registered for the same type, unless they return
+ * no action for an activity instance or job.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public interface ExecutableProvider {
+
+  /**
+   * @return waitstate factories mapped to activity types
+   */
+  Map<String, WaitstateFactory> waitstates();
+
+  /**
+   * @return job factories mapped to job handler types
+   */
+  Map<String, JobFactory> jobs();
+
+}
@@ -0,0 +1,27 @@
+package org.camunda.bpm.scenario.spi;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.scenario.ProcessScenario;
+import org.camunda.bpm.scenario.act.Action;
+
+/**
+ * Decides how a scenario deals with a job of a certain type once the
+ * job is due. Registered per job handler type, see
+ * {@link ExecutableProvider}.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public interface JobFactory {
+
+  /**
+   * @param processEngine the engine the scenario works with
+   * @param scenario the scenario running the process instance
+   * @param job the job of the process instance
+   * @return the action to be executed for the job once it is due, e.g.
+   * executing it by means of the management service, or null in case the
+   * built-in behaviour for the job handler type should be used
+   */
+  Action<Job> newInstance(ProcessEngine processEngine, ProcessScenario scenario, Job job);
+
+}
@@ -0,0 +1,60 @@
+package org.camunda.bpm.scenario.spi;
+
+import java.util.Date;
+
+/**
+ * Receives the events of the scenario log. Set a sink for all threads
+ * or just for the current thread by means of {@link LogSinks}. Events
+ * are reused by the logging thread, sinks must therefore not keep a
+ * reference to the event provided, but copy what they need.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public interface LogSink {
+
+  enum Level { DEBUG, INFO }
+
+  /**
+   * @return true in case events of the level provided should be
+   * handed to this sink at all
+   */
+  boolean isEnabled(Level level);
+
+  void log(Event event);
+
+  /**
+   * Event of the scenario log, rendered to a message on demand.
+   */
+  interface Event {
+
+    Level getLevel();
+
+    /**
+     * @return name of the action logged, e.g. 'Started' or 'ActingOn'
+     */
+    String getAction();
+
+    String getActivityType();
+
+    String getActivityName();
+
+    String getActivityId();
+
+    String getProcessDefinitionKey();
+
+    String getProcessInstanceId();
+
+    String getActionId();
+
+    Date getTime();
+
+    /**
+     * @return the scenario time when the event was logged.
+     */
+    Date getNow();
+
+    String getMessage();
+
+  }
+
+}
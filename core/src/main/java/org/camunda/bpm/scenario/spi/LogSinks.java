@@ -0,0 +1,51 @@
+package org.camunda.bpm.scenario.spi;
+
+import org.camunda.bpm.scenario.impl.util.Log;
+
+/**
+ * Sets the sinks receiving the events of the scenario log. By default,
+ * the events are logged to SLF4J (or java.util.logging in case SLF4J is
+ * not found in the classpath), which can be changed by the system
+ * property 'org.camunda.bpm.scenario.log' (values 'slf4j', 'jul' and
+ * 'off').
+ *
+ * The shared sink receives the events of all scenarios executed
+ * concurrently. A thread may use a sink of its own, e.g. in order to
+ * capture just the log of the scenarios it executes.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public final class LogSinks {
+
+  private LogSinks() {}
+
+  /**
+   * Sets the sink shared by all threads not using a sink of their own.
+   */
+  public static void shared(LogSink sink) {
+    Log.sink(sink);
+  }
+
+  /**
+   * @return the sink shared by all threads not using a sink of their own.
+   */
+  public static LogSink shared() {
+    return Log.sink();
+  }
+
+  /**
+   * Sets the sink of the current thread, or lets it use the shared
+   * sink again in case null is provided.
+   */
+  public static void thread(LogSink sink) {
+    Log.threadSink(sink);
+  }
+
+  /**
+   * @return a sink not interested in any event
+   */
+  public static LogSink off() {
+    return Log.off();
+  }
+
+}
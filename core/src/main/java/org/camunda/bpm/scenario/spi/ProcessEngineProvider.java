@@ -0,0 +1,24 @@
+package org.camunda.bpm.scenario.spi;
+
+import org.camunda.bpm.engine.ProcessEngine;
+
+/**
+ * Provides the process engine scenarios use by default, e.g. the
+ * engine a test runner leased to the current thread. In order to
+ * register your own, implement this interface and declare your
+ * implementation in a file named
+ * 'META-INF/services/org.camunda.bpm.scenario.spi.ProcessEngineProvider'
+ * on your classpath. In case no provider delivers an engine, scenarios
+ * use the single engine registered with the ProcessEngines.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public interface ProcessEngineProvider {
+
+  /**
+   * @return the process engine to be used by scenarios executed by
+   * the current thread or null
+   */
+  ProcessEngine processEngine();
+
+}
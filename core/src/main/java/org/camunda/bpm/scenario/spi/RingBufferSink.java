@@ -0,0 +1,56 @@
+package org.camunda.bpm.scenario.spi;
+
+import org.camunda.bpm.scenario.impl.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sink keeping the most recent events of the scenario log in memory,
+ * in slots allocated once. Set as the sink of a thread in order to
+ * keep just the events of the scenarios executed by that thread.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class RingBufferSink implements LogSink {
+
+  private Log.Event[] events;
+  private int next;
+  private int size;
+
+  public RingBufferSink(int capacity) {
+    events = new Log.Event[capacity];
+    for (int i = 0; i < capacity; i++) {
+      events[i] = new Log.Event();
+    }
+  }
+
+  @Override
+  public boolean isEnabled(Level level) {
+    return true;
+  }
+
+  @Override
+  public synchronized void log(Event event) {
+    events[next].copy((Log.Event) event);
+    next = (next + 1) % events.length;
+    size = Math.min(size + 1, events.length);
+  }
+
+  /**
+   * @return the messages of the events kept, the oldest first.
+   */
+  public synchronized List<String> messages() {
+    List<String> messages = new ArrayList<String>(size);
+    for (int i = 0; i < size; i++) {
+      messages.add(events[(next - size + i + events.length) % events.length].getMessage());
+    }
+    return messages;
+  }
+
+  public synchronized void clear() {
+    next = 0;
+    size = 0;
+  }
+
+}
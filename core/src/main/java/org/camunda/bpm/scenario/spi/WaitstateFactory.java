@@ -0,0 +1,27 @@
+package org.camunda.bpm.scenario.spi;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.scenario.ProcessScenario;
+import org.camunda.bpm.scenario.act.Action;
+
+/**
+ * Decides how a scenario acts when a process instance waits at an
+ * activity of a certain type. Registered per activity type, see
+ * {@link ExecutableProvider}.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public interface WaitstateFactory {
+
+  /**
+   * @param processEngine the engine the scenario works with
+   * @param scenario the scenario running the process instance
+   * @param instance the activity instance the process instance waits at
+   * @return the action to be executed for the activity instance once it
+   * is due, or null in case the built-in behaviour for the activity type
+   * should be used
+   */
+  Action<HistoricActivityInstance> newInstance(ProcessEngine processEngine, ProcessScenario scenario, HistoricActivityInstance instance);
+
+}
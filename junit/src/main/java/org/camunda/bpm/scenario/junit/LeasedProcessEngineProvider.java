@@ -0,0 +1,19 @@
+package org.camunda.bpm.scenario.junit;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.scenario.spi.ProcessEngineProvider;
+
+/**
+ * Lets scenarios executed by a thread which leased an engine from a
+ * {@link ProcessEnginePool} use that engine by default.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class LeasedProcessEngineProvider implements ProcessEngineProvider {
+
+  @Override
+  public ProcessEngine processEngine() {
+    return ProcessEnginePool.leased();
+  }
+
+}
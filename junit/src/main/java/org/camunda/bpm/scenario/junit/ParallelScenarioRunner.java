@@ -0,0 +1,129 @@
+package org.camunda.bpm.scenario.junit;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.impl.test.TestHelper;
+import org.camunda.bpm.engine.repository.Deployment;
+import org.camunda.bpm.engine.test.mock.Mocks;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerScheduler;
+import org.junit.runners.model.Statement;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JUnit runner executing the test methods of a scenario test class in
+ * parallel threads. Every test method leases its own process engine from
+ * a {@link ProcessEnginePool} built from 'camunda.cfg.xml', deploys the
+ * resources of its {@link org.camunda.bpm.engine.test.Deployment}
+ * annotation, and finally leaves the engine clean for the next test:
+ *
+ * <pre>
+ * &#64;RunWith(ParallelScenarioRunner.class)
+ * public class MyScenarioTest {
+ *
+ *   &#64;Test
+ *   &#64;Deployment(resources = "MyProcess.bpmn")
+ *   public void testHappyPath() {
+ *     Scenario.run(scenario).startByKey("MyProcess").execute();
+ *     ...
+ *   }
+ *
+ * }
+ * </pre>
+ *
+ * Use {@link ProcessEnginePool#leased()} to access the engine of the
+ * current test, and do not combine this runner with a ProcessEngineRule.
+ * The number of threads and engines defaults to the number of available
+ * processors and can be set by the system property
+ * 'org.camunda.bpm.scenario.junit.threads'. In order to run several test
+ * classes concurrently, too, use e.g. surefire's parallel 'classes' mode;
+ * all classes running at the same time share the same pool of engines,
+ * which is closed when the last of them finished.
+ *
+ * Note that the engine's clock is shared by the whole JVM, therefore the
+ * steps scenarios execute with their engines are still serialized.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ParallelScenarioRunner extends BlockJUnit4ClassRunner {
+
+  public static final String THREADS = "org.camunda.bpm.scenario.junit.threads";
+  public static final String CONFIGURATION_RESOURCE = "camunda.cfg.xml";
+
+  private final int threads;
+  private ProcessEnginePool pool;
+
+  public ParallelScenarioRunner(Class<?> testClass) throws InitializationError {
+    super(testClass);
+    threads = Integer.getInteger(THREADS, Runtime.getRuntime().availableProcessors());
+    setScheduler(new RunnerScheduler() {
+
+      private ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+      @Override
+      public void schedule(Runnable childStatement) {
+        executor.submit(childStatement);
+      }
+
+      @Override
+      public void finished() {
+        executor.shutdown();
+        try {
+          executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+
+    });
+  }
+
+  @Override
+  public void run(RunNotifier notifier) {
+    pool = ProcessEnginePool.open(CONFIGURATION_RESOURCE, threads);
+    try {
+      super.run(notifier);
+    } finally {
+      pool.close();
+    }
+  }
+
+  @Override
+  protected Statement methodBlock(final FrameworkMethod method) {
+    final Statement statement = super.methodBlock(method);
+    final Class<?> testClass = getTestClass().getJavaClass();
+    return new Statement() {
+      @Override
+      public void evaluate() throws Throwable {
+        ProcessEngine processEngine = pool.lease();
+        try {
+          String deploymentId = TestHelper.annotationDeploymentSetUp(processEngine, testClass, method.getName());
+          try {
+            statement.evaluate();
+          } finally {
+            if (deploymentId != null)
+              TestHelper.annotationDeploymentTearDown(processEngine, deploymentId, testClass, method.getName());
+            clean(processEngine);
+            Mocks.reset();
+          }
+        } finally {
+          pool.release(processEngine);
+        }
+      }
+    };
+  }
+
+  private void clean(ProcessEngine processEngine) {
+    RepositoryService repositoryService = processEngine.getRepositoryService();
+    for (Deployment deployment: repositoryService.createDeploymentQuery().list()) {
+      repositoryService.deleteDeployment(deployment.getId(), true);
+    }
+  }
+
+}
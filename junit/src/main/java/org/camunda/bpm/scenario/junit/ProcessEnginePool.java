@@ -0,0 +1,137 @@
+package org.camunda.bpm.scenario.junit;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngines;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Pool of process engines built from the same configuration resource,
+ * leased to one test thread at a time. Every engine gets its own name
+ * and - in case the configuration uses an in-memory H2 database - its
+ * own database, which is dropped again when the pool is closed. Pooled
+ * engines are not registered with {@link ProcessEngines}, scenarios
+ * executed by a thread which leased an engine use that engine by
+ * default.
+ *
+ * Every {@link #open(String, int)} needs to be followed by a
+ * {@link #close()}, the pool closes its engines when the last of its
+ * users closed it.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ProcessEnginePool {
+
+  private static final String H2_IN_MEMORY = "jdbc:h2:mem:";
+  private static final String CREATE_DROP = "create-drop";
+
+  private static Map<String, ProcessEnginePool> pools = new HashMap<String, ProcessEnginePool>();
+  private static ThreadLocal<ProcessEngine> leased = new ThreadLocal<ProcessEngine>();
+
+  private String configurationResource;
+  private int size;
+  private int users;
+  private List<ProcessEngine> built = new ArrayList<ProcessEngine>();
+  private BlockingQueue<ProcessEngine> idle = new LinkedBlockingQueue<ProcessEngine>();
+
+  private ProcessEnginePool(String configurationResource, int size) {
+    this.configurationResource = configurationResource;
+    this.size = size;
+  }
+
+  /**
+   * @return the pool of engines built from the configuration resource
+   * provided. The size is just used when the pool is created for the
+   * first time.
+   */
+  public static synchronized ProcessEnginePool open(String configurationResource, int size) {
+    ProcessEnginePool pool = pools.get(configurationResource);
+    if (pool == null) {
+      pool = new ProcessEnginePool(configurationResource, size);
+      pools.put(configurationResource, pool);
+    }
+    pool.users++;
+    return pool;
+  }
+
+  /**
+   * Closes the pool for the caller of {@link #open(String, int)}. In
+   * case this was the last user of the pool, closes the engines built
+   * so far and forgets about the pool, so that a later open() builds
+   * new engines.
+   */
+  public void close() {
+    synchronized (ProcessEnginePool.class) {
+      if (--users > 0)
+        return;
+      pools.remove(configurationResource);
+    }
+    synchronized (this) {
+      for (ProcessEngine processEngine: built) {
+        processEngine.close();
+      }
+      built.clear();
+      idle.clear();
+    }
+  }
+
+  /**
+   * @return the engine currently leased by the calling thread or null
+   * in case the thread did not lease an engine.
+   */
+  public static ProcessEngine leased() {
+    return leased.get();
+  }
+
+  /**
+   * Leases an idle engine to the calling thread. Builds a new engine
+   * as long as the pool did not yet reach its size, waits for another
+   * thread to release its engine otherwise.
+   */
+  public ProcessEngine lease() {
+    ProcessEngine processEngine = idle.poll();
+    if (processEngine == null)
+      processEngine = build();
+    if (processEngine == null) {
+      try {
+        processEngine = idle.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for an idle process engine", e);
+      }
+    }
+    leased.set(processEngine);
+    return processEngine;
+  }
+
+  public void release(ProcessEngine processEngine) {
+    leased.remove();
+    idle.add(processEngine);
+  }
+
+  private synchronized ProcessEngine build() {
+    if (built.size() == size)
+      return null;
+    ProcessEngineConfiguration configuration = ProcessEngineConfiguration
+        .createProcessEngineConfigurationFromResource(configurationResource);
+    configuration.setProcessEngineName(configuration.getProcessEngineName() + "-" + built.size());
+    String jdbcUrl = configuration.getJdbcUrl();
+    if (jdbcUrl != null && jdbcUrl.startsWith(H2_IN_MEMORY)) {
+      int name = jdbcUrl.indexOf(';') < 0 ? jdbcUrl.length() : jdbcUrl.indexOf(';');
+      configuration.setJdbcUrl(jdbcUrl.substring(0, name) + "-" + built.size() + jdbcUrl.substring(name));
+      // the database belongs to the pool alone
+      configuration.setDatabaseSchemaUpdate(CREATE_DROP);
+    }
+    ProcessEngine processEngine = configuration.buildProcessEngine();
+    ProcessEngines.unregister(processEngine);
+    built.add(processEngine);
+    return processEngine;
+  }
+
+}
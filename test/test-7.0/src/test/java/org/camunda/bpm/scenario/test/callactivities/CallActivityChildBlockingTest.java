@@ -9,6 +9,7 @@ import org.camunda.bpm.scenario.test.AbstractTest;
 import org.junit.Test;
 import org.mockito.Mock;
 
+import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -45,6 +46,32 @@ public class CallActivityChildBlockingTest extends AbstractTest {
 
   }
 
+  @Test
+  @Deployment(resources = {
+    "org/camunda/bpm/scenario/test/callactivities/CallActivityTest.bpmn",
+    "org/camunda/bpm/scenario/test/callactivities/CallActivityChildBlockingTest.bpmn"
+  })
+  public void testCompletedChildInstance() {
+
+    when(scenario.runsCallActivity("CallActivity")).thenReturn(Scenario.use(childScenario));
+
+    when(childScenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        task.complete();
+      }
+    });
+
+    Scenario run = Scenario.run(scenario).startByKey("CallActivityTest").execute();
+
+    verify(childScenario, times(1)).hasFinished("UserTask");
+    verify(childScenario, times(1)).hasFinished("EndEvent");
+    verify(scenario, times(1)).hasFinished("EndEvent");
+    assertNotNull(run.instance(childScenario));
+    assertNotEquals(run.instance(scenario).getId(), run.instance(childScenario).getId());
+
+  }
+
   @Test
   @Deployment(resources = {
     "org/camunda/bpm/scenario/test/callactivities/CallActivityTest.bpmn",
@@ -0,0 +1,41 @@
+package org.camunda.bpm.scenario.test.combinations;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class AsyncServiceTasksTest extends AbstractTest {
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/combinations/AsyncServiceTasksTest.bpmn"})
+  public void testCompleteTask() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        task.complete();
+      }
+    });
+
+    Scenario run = Scenario.run(scenario).startByKey("AsyncServiceTasksTest").execute();
+
+    // all continuations one after the other, then the user task
+    assertEquals(2, run.metrics().getSteps());
+    verify(scenario, times(1)).hasFinished("ServiceTask1");
+    verify(scenario, times(1)).hasFinished("ServiceTask2");
+    verify(scenario, times(1)).hasFinished("ServiceTask3");
+    verify(scenario, times(1)).hasStarted("UserTask");
+    verify(scenario, times(1)).hasFinished("EndEvent");
+
+  }
+
+}
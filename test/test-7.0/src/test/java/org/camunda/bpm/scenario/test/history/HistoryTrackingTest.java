@@ -0,0 +1,105 @@
+package org.camunda.bpm.scenario.test.history;
+
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.defer.Deferred;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * The engine of this module is not configured with the
+ * ScenarioProcessEnginePlugin, so runners track the history of their
+ * process instance by the engine time they last looked at it.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@Deployment(resources = {"org/camunda/bpm/scenario/test/loops/ExclusiveGatewayLoopTest.bpmn"})
+public class HistoryTrackingTest extends AbstractTest {
+
+  private int loop = 0;
+
+  @Before
+  public void setVariable() {
+    variables.put("leave", true);
+  }
+
+  @Test
+  public void testSeenOnceWithinWindow() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        variables.put("leave", ++loop == 3);
+        task.complete(variables);
+      }
+    });
+
+    Scenario.run(scenario).startByKey("ExclusiveGatewayLoopTest").execute();
+
+    // the engine time does not move on, so every look at the history
+    // sees all the activity instances seen before once again
+    verify(scenario, times(3)).hasStarted("UserTask");
+    verify(scenario, times(3)).hasFinished("UserTask");
+    verify(scenario, times(3)).hasFinished("ExclusiveGateway_199xery");
+    verify(scenario, times(1)).hasFinished("EndEvent");
+
+  }
+
+  @Test
+  public void testSeenOnceBeyondWindow() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(final TaskDelegate task) {
+        task.defer("PT1M", new Deferred() {
+          @Override
+          public void execute() {
+            variables.put("leave", ++loop == 3);
+            task.complete(variables);
+          }
+        });
+      }
+    });
+
+    Scenario.run(scenario).startByKey("ExclusiveGatewayLoopTest").execute();
+
+    // activity instances finished more than a second before we last
+    // looked at the history are not queried again
+    verify(scenario, times(3)).hasStarted("UserTask");
+    verify(scenario, times(3)).hasFinished("UserTask");
+    verify(scenario, times(3)).hasFinished("ExclusiveGateway_199xery");
+    verify(scenario, times(1)).hasFinished("EndEvent");
+
+  }
+
+  @Test
+  public void testEngineTimeMovedBackwards() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        // the activity instances end before the window we looked at
+        // last, but the engine time stays where the action left it
+        Date now = ClockUtil.getCurrentTime();
+        ClockUtil.setCurrentTime(new Date(now.getTime() - 60 * 60 * 1000));
+        task.complete(variables);
+      }
+    });
+
+    Scenario.run(scenario).startByKey("ExclusiveGatewayLoopTest").execute();
+
+    verify(scenario, times(1)).hasFinished("UserTask");
+    verify(scenario, times(1)).hasFinished("ExclusiveGateway_199xery");
+    verify(scenario, times(1)).hasFinished("EndEvent");
+
+  }
+
+}
@@ -0,0 +1,84 @@
+package org.camunda.bpm.scenario.test.junit;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.ProcessScenario;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.defer.Deferred;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.junit.ParallelScenarioRunner;
+import org.camunda.bpm.scenario.junit.ProcessEnginePool;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@RunWith(ParallelScenarioRunner.class)
+public class ParallelScenarioRunnerTest {
+
+  @Mock
+  private ProcessScenario scenario;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+  }
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testCompleteTaskInTime() {
+    completeTaskAfter("PT4M");
+    verify(scenario, times(1)).hasFinished("EndEventCompleted");
+    verify(scenario, never()).hasFinished("EndEventCanceled");
+  }
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testTakeMuchTooLongForTask() {
+    completeTaskAfter("PT6M");
+    verify(scenario, never()).hasFinished("EndEventCompleted");
+    verify(scenario, times(1)).hasFinished("EndEventCanceled");
+  }
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testCompleteTaskImmediately() {
+    completeTaskAfter("PT0S");
+    verify(scenario, times(1)).hasFinished("EndEventCompleted");
+    verify(scenario, never()).hasFinished("EndEventCanceled");
+  }
+
+  private void completeTaskAfter(final String period) {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(final TaskDelegate task) {
+        task.defer(period, new Deferred() {
+          @Override
+          public void execute() {
+            task.complete();
+          }
+        });
+      }
+    });
+
+    ProcessEngine processEngine = ProcessEnginePool.leased();
+    assertNotNull(processEngine);
+    assertEquals(1, processEngine.getRepositoryService().createDeploymentQuery().count());
+
+    Scenario scenario = Scenario.run(this.scenario).startByKey("BoundaryInterruptingTimerTest").execute();
+
+    assertEquals(1, processEngine.getHistoryService().createHistoricProcessInstanceQuery().count());
+    assertNotNull(scenario.instance(this.scenario));
+
+  }
+
+}
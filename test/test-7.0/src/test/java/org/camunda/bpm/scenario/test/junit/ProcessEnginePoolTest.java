@@ -0,0 +1,66 @@
+package org.camunda.bpm.scenario.test.junit;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.scenario.junit.ProcessEnginePool;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ProcessEnginePoolTest {
+
+  private static final String CONFIGURATION_RESOURCE = "camunda.cfg.xml";
+
+  @Test
+  public void testLeaseAndRelease() {
+
+    ProcessEnginePool pool = ProcessEnginePool.open(CONFIGURATION_RESOURCE, 1);
+    try {
+      ProcessEngine processEngine = pool.lease();
+      assertSame(processEngine, ProcessEnginePool.leased());
+      pool.release(processEngine);
+      assertNull(ProcessEnginePool.leased());
+      assertSame(processEngine, pool.lease());
+      pool.release(processEngine);
+    } finally {
+      pool.close();
+    }
+
+  }
+
+  @Test
+  public void testCloseByLastUser() {
+
+    ProcessEnginePool pool = ProcessEnginePool.open(CONFIGURATION_RESOURCE, 1);
+    ProcessEnginePool other = ProcessEnginePool.open(CONFIGURATION_RESOURCE, 1);
+    assertSame(pool, other);
+    ProcessEngine processEngine = pool.lease();
+    pool.release(processEngine);
+    other.close();
+    // still used, so the engine is still the same
+    assertSame(processEngine, pool.lease());
+    pool.release(processEngine);
+    pool.close();
+    // closed, so the engine's database is dropped
+    try {
+      processEngine.getRepositoryService().createDeploymentQuery().count();
+      fail("Expected the database of the closed engine to be dropped");
+    } catch (RuntimeException e) {
+      // expected
+    }
+    ProcessEnginePool reopened = ProcessEnginePool.open(CONFIGURATION_RESOURCE, 1);
+    try {
+      assertNotSame(pool, reopened);
+      ProcessEngine rebuilt = reopened.lease();
+      assertNotSame(processEngine, rebuilt);
+      assertEquals(0, rebuilt.getRepositoryService().createDeploymentQuery().count());
+      reopened.release(rebuilt);
+    } finally {
+      reopened.close();
+    }
+
+  }
+
+}
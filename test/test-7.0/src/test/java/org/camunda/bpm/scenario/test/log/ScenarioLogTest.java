@@ -0,0 +1,184 @@
+package org.camunda.bpm.scenario.test.log;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.defer.Deferred;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.spi.LogSink;
+import org.camunda.bpm.scenario.spi.LogSinks;
+import org.camunda.bpm.scenario.spi.RingBufferSink;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ScenarioLogTest extends AbstractTest {
+
+  private LogSink sink = LogSinks.shared();
+
+  @After
+  public void resetSink() {
+    LogSinks.thread(null);
+    LogSinks.shared(sink);
+  }
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testRingBuffer() {
+
+    RingBufferSink buffer = new RingBufferSink(3);
+    LogSinks.thread(buffer);
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(final TaskDelegate task) {
+        task.defer("PT4M", new Deferred() {
+          @Override
+          public void execute() {
+            task.complete();
+          }
+        });
+      }
+    });
+
+    Scenario.run(scenario).startByKey("BoundaryInterruptingTimerTest").execute();
+
+    List<String> messages = buffer.messages();
+    assertEquals(3, messages.size());
+    assertTrue(messages.get(1).contains("EndEventCompleted"));
+    assertTrue(messages.get(2).startsWith("  * Finishing scenario at"));
+
+  }
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testFastForward() {
+
+    RingBufferSink buffer = new RingBufferSink(100);
+    LogSinks.thread(buffer);
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(final TaskDelegate task) {
+        task.defer("PT4M", new Deferred() {
+          @Override
+          public void execute() {
+            task.complete();
+          }
+        });
+      }
+    });
+
+    Scenario.run(scenario).startByKey("BoundaryInterruptingTimerTest").execute();
+
+    List<String> messages = buffer.messages();
+    assertTrue(messages.get(0).startsWith("* Starting scenario at"));
+    String finishing = messages.get(messages.size() - 1);
+    assertTrue(finishing.startsWith("  * Finishing scenario at "));
+    assertTrue(messages.contains("| Fast-forwarding scenario to " + finishing.substring("  * Finishing scenario at ".length())));
+
+  }
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testRenderedMessages() {
+
+    RingBufferSink buffer = new RingBufferSink(100);
+    LogSinks.thread(buffer);
+
+    final Deferred[] deferred = new Deferred[1];
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(final TaskDelegate task) {
+        deferred[0] = new Deferred() {
+          @Override
+          public void execute() {
+            task.complete();
+          }
+        };
+        task.defer("PT4M", deferred[0]);
+      }
+    });
+
+    String id = Scenario.run(scenario).startByKey("BoundaryInterruptingTimerTest").execute().instance(scenario).getId();
+
+    List<String> messages = new ArrayList<String>();
+    for (String message: buffer.messages()) {
+      messages.add(message.replace(id, "{id}").replace(deferred[0].toString(), "{action}")
+        .replaceAll("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}", "{time}"));
+    }
+    assertEquals(Arrays.asList(
+      "* Starting scenario at {time}",
+      "| Started   startEvent         (StartEvent @ BoundaryInterruptingTimerTest # {id})",
+      "| Completed startEvent         (StartEvent @ BoundaryInterruptingTimerTest # {id})",
+      "| Started   userTask           (UserTask @ BoundaryInterruptingTimerTest # {id})",
+      "* Acting on userTask           (UserTask @ BoundaryInterruptingTimerTest # {id})",
+      "| Deferring action on          '' until {time} (UserTask @ BoundaryInterruptingTimerTest # {id} : {action})",
+      "| Fast-forwarding scenario to {time}",
+      "|-- Executing deferred action on '' (UserTask @ BoundaryInterruptingTimerTest # {id} : {action})",
+      "  | Completed userTask           (UserTask @ BoundaryInterruptingTimerTest # {id})",
+      "  | Started   noneEndEvent       (EndEventCompleted @ BoundaryInterruptingTimerTest # {id})",
+      "  | Completed noneEndEvent       (EndEventCompleted @ BoundaryInterruptingTimerTest # {id})",
+      "  * Finishing scenario at {time}"
+    ), messages);
+
+  }
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testThreadSink() {
+
+    RingBufferSink shared = new RingBufferSink(100);
+    LogSinks.shared(shared);
+    RingBufferSink buffer = new RingBufferSink(100);
+    LogSinks.thread(buffer);
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        task.complete();
+      }
+    });
+
+    Scenario.run(scenario).startByKey("BoundaryInterruptingTimerTest").execute();
+
+    assertTrue(shared.messages().isEmpty());
+    assertFalse(buffer.messages().isEmpty());
+
+    LogSinks.thread(null);
+    Scenario.run(scenario).startByKey("BoundaryInterruptingTimerTest").execute();
+
+    assertFalse(shared.messages().isEmpty());
+
+  }
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testOff() {
+
+    LogSinks.thread(LogSinks.off());
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        task.complete();
+      }
+    });
+
+    Scenario.run(scenario).startByKey("BoundaryInterruptingTimerTest").execute();
+
+    verify(scenario, times(1)).hasFinished("EndEventCompleted");
+
+  }
+
+}
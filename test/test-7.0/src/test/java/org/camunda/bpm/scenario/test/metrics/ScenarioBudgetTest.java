@@ -0,0 +1,93 @@
+package org.camunda.bpm.scenario.test.metrics;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.ScenarioBudget;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.defer.Deferred;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ScenarioBudgetTest extends AbstractTest {
+
+  @Before
+  public void deferCompletion() {
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(final TaskDelegate task) {
+        task.defer("PT4M", new Deferred() {
+          @Override
+          public void execute() {
+            task.complete();
+          }
+        });
+      }
+    });
+  }
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testWithinBudget() {
+
+    Scenario.run(scenario).startByKey("BoundaryInterruptingTimerTest")
+      .budget(ScenarioBudget.total().maxSteps(2).maxMillis(60000))
+      .budget(ScenarioBudget.activity("UserTask").maxSteps(2))
+      .budget(ScenarioBudget.activity("TimerEvent").maxSteps(0))
+      .execute();
+
+    verify(scenario, times(1)).hasFinished("EndEventCompleted");
+
+  }
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testTotalExceeded() {
+
+    try {
+      Scenario.run(scenario).startByKey("BoundaryInterruptingTimerTest")
+        .budget(ScenarioBudget.total().maxSteps(1))
+        .execute();
+      fail("AssertionError expected");
+    } catch (AssertionError e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("scenario exceeded 2 steps (budget: 1)"));
+    }
+
+  }
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testActivityExceeded() {
+
+    try {
+      Scenario.run(scenario).startByKey("BoundaryInterruptingTimerTest")
+        .budget(ScenarioBudget.total().maxSteps(2))
+        .budget(ScenarioBudget.activity("UserTask").maxSteps(1))
+        .execute();
+      fail("AssertionError expected");
+    } catch (AssertionError e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("activity 'UserTask' exceeded 2 steps (budget: 1)"));
+      assertFalse(e.getMessage(), e.getMessage().contains("scenario exceeded"));
+    }
+
+  }
+
+  // the engine of this module does not count its commands
+  @Test(expected=IllegalStateException.class)
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testCommandsUncounted() {
+
+    Scenario.run(scenario).startByKey("BoundaryInterruptingTimerTest")
+      .budget(ScenarioBudget.activity("UserTask").maxCommands(1).maxStatements(1))
+      .execute();
+
+  }
+
+}
@@ -0,0 +1,118 @@
+package org.camunda.bpm.scenario.test.metrics;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.ScenarioListener;
+import org.camunda.bpm.scenario.ScenarioMetrics;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.defer.Deferred;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ScenarioMetricsTest extends AbstractTest {
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testSteps() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(final TaskDelegate task) {
+        task.defer("PT4M", new Deferred() {
+          @Override
+          public void execute() {
+            task.complete();
+          }
+        });
+      }
+    });
+
+    final List<String> steps = new ArrayList<String>();
+    final long[] totals = new long[3];
+
+    Scenario scenario = Scenario.run(this.scenario).startByKey("BoundaryInterruptingTimerTest")
+      .listen(new ScenarioListener() {
+        @Override
+        public void executed(ScenarioMetrics.Step step) {
+          steps.add(step.getType() + ":" + step.getActivityId());
+          assertEquals(1, step.getSteps());
+          assertNotNull(step.getProcessInstanceId());
+          assertTrue(step.getActionNanos() >= 0);
+          totals[0] += step.getTimeJump();
+          totals[1] += step.getWallNanos();
+          totals[2] += step.getCommands();
+        }
+      }).execute();
+
+    assertEquals(2, steps.size());
+    assertEquals("UserTask:UserTask", steps.get(0));
+    assertEquals("Deferred:UserTask", steps.get(1));
+
+    ScenarioMetrics metrics = scenario.metrics();
+    assertEquals(2, metrics.getSteps());
+    assertEquals(totals[0], metrics.getTimeJump());
+    assertEquals(4 * 60 * 1000, metrics.getTimeJump());
+    assertTrue(metrics.getWallNanos() >= totals[1]);
+    assertTrue(metrics.getRunnerNanos() >= 0);
+    // the engine of this module does not count its commands
+    assertEquals(-1, metrics.getCommands());
+    assertEquals(-1, metrics.getEngineNanos());
+    assertEquals(-2, totals[2]);
+
+  }
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testActionNanos() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) throws Exception {
+        Thread.sleep(50);
+        task.complete();
+      }
+    });
+
+    ScenarioMetrics metrics = Scenario.run(scenario).startByKey("BoundaryInterruptingTimerTest").execute().metrics();
+
+    assertEquals(1, metrics.getSteps());
+    assertEquals(0, metrics.getTimeJump());
+    assertTrue(metrics.getActionNanos() >= 50 * 1000000);
+    assertTrue(metrics.getWallNanos() >= metrics.getActionNanos());
+
+  }
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testUncountedStatements() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        for (int i = 0; i < 3; i++) {
+          rule.getTaskService().createTaskQuery().taskId(task.getId()).singleResult();
+        }
+        task.complete();
+      }
+    });
+
+    ScenarioMetrics metrics = Scenario.run(scenario).startByKey("BoundaryInterruptingTimerTest").execute().metrics();
+
+    // the engine of this module does not count its statements
+    assertEquals(-1, metrics.getStatements());
+    assertEquals(-1, metrics.getStatementNanos());
+    assertTrue(metrics.getRepeatedStatements().isEmpty());
+
+  }
+
+}
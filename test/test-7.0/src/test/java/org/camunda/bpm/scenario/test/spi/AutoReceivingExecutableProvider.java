@@ -0,0 +1,48 @@
+package org.camunda.bpm.scenario.test.spi;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.scenario.ProcessScenario;
+import org.camunda.bpm.scenario.act.Action;
+import org.camunda.bpm.scenario.spi.ExecutableProvider;
+import org.camunda.bpm.scenario.spi.JobFactory;
+import org.camunda.bpm.scenario.spi.WaitstateFactory;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Registered for the tests of this module, but just deals with the
+ * receive tasks of the process definition of the ExecutableProviderTest
+ * and leaves all others to the built-in executables. Its receive tasks
+ * receive their message without asking the scenario.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class AutoReceivingExecutableProvider implements ExecutableProvider {
+
+  static final String PROCESS_DEFINITION_KEY = "ExecutableProviderTest";
+
+  @Override
+  public Map<String, WaitstateFactory> waitstates() {
+    return Collections.<String, WaitstateFactory>singletonMap("receiveTask", new WaitstateFactory() {
+      @Override
+      public Action<HistoricActivityInstance> newInstance(final ProcessEngine processEngine, ProcessScenario scenario, HistoricActivityInstance instance) {
+        if (!instance.getProcessDefinitionId().startsWith(PROCESS_DEFINITION_KEY + ":"))
+          return null;
+        return new Action<HistoricActivityInstance>() {
+          @Override
+          public void execute(HistoricActivityInstance instance) {
+            processEngine.getRuntimeService().signal(instance.getExecutionId());
+          }
+        };
+      }
+    });
+  }
+
+  @Override
+  public Map<String, JobFactory> jobs() {
+    return Collections.emptyMap();
+  }
+
+}
@@ -0,0 +1,35 @@
+package org.camunda.bpm.scenario.test.spi;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.Test;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ExecutableProviderTest extends AbstractTest {
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/spi/ExecutableProviderTest.bpmn"})
+  public void testProvidedExecutable() {
+
+    Scenario.run(scenario).startByKey(AutoReceivingExecutableProvider.PROCESS_DEFINITION_KEY).execute();
+
+    verify(scenario, never()).waitsAtReceiveTask("ReceiveTask");
+    verify(scenario, times(1)).hasFinished("ReceiveTask");
+    verify(scenario, times(1)).hasFinished("EndEvent");
+
+  }
+
+  @Test(expected=AssertionError.class)
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/waitstates/ReceiveTaskTest.bpmn"})
+  public void testBuiltInExecutable() {
+
+    Scenario.run(scenario).startByKey("ReceiveTaskTest").execute();
+
+  }
+
+}
@@ -1,6 +1,8 @@
 package org.camunda.bpm.scenario.test.timers;
 
 import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.runtime.Job;
 import org.camunda.bpm.engine.test.Deployment;
 import org.camunda.bpm.scenario.Scenario;
 import org.camunda.bpm.scenario.act.UserTaskAction;
@@ -9,6 +11,8 @@ import org.camunda.bpm.scenario.delegate.TaskDelegate;
 import org.camunda.bpm.scenario.test.AbstractTest;
 import org.junit.Test;
 
+import java.util.Date;
+
 import static org.mockito.Mockito.*;
 
 /**
@@ -114,6 +118,37 @@ public class BoundaryInterruptingTimerTest extends AbstractTest {
 
   }
 
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testMovingTimerForTask() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(final TaskDelegate task) {
+        task.defer("PT4M", new Deferred() {
+          @Override
+          public void execute() {
+            task.complete();
+          }
+        });
+        Job timer = rule.getManagementService().createJobQuery()
+          .processInstanceId(task.getProcessInstanceId()).singleResult();
+        rule.getManagementService().setJobDuedate(timer.getId(),
+          new Date(ClockUtil.getCurrentTime().getTime() + 2 * 60 * 1000));
+      }
+    });
+
+    Scenario.run(scenario).startByKey("BoundaryInterruptingTimerTest").execute();
+
+    verify(scenario, times(1)).waitsAtUserTask("UserTask");
+    verify(scenario, times(1)).hasStarted("UserTask");
+    verify(scenario, never()).hasCompleted("UserTask");
+    verify(scenario, times(1)).hasCanceled("UserTask");
+    verify(scenario, times(1)).hasFinished("EndEventCanceled");
+    verify(scenario, never()).hasFinished("EndEventCompleted");
+
+  }
+
   @Test
   @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
   public void testDoNothing() {
@@ -0,0 +1,77 @@
+package org.camunda.bpm.scenario.test.timers;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.ProcessScenario;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.defer.Deferred;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class ConcurrentScenariosTest extends AbstractTest {
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/timers/BoundaryInterruptingTimerTest.bpmn"})
+  public void testExecuteScenariosInParallelThreads() throws Exception {
+
+    List<ProcessScenario> completing = new ArrayList<ProcessScenario>();
+    List<ProcessScenario> canceling = new ArrayList<ProcessScenario>();
+    List<Callable<Scenario>> executions = new ArrayList<Callable<Scenario>>();
+
+    for (int i = 0; i < 8; i++) {
+      final ProcessScenario scenario = mock(ProcessScenario.class);
+      final String period = i % 2 == 0 ? "PT4M" : "PT6M";
+      when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+        @Override
+        public void execute(final TaskDelegate task) {
+          task.defer(period, new Deferred() {
+            @Override
+            public void execute() {
+              task.complete();
+            }
+          });
+        }
+      });
+      (i % 2 == 0 ? completing : canceling).add(scenario);
+      executions.add(new Callable<Scenario>() {
+        @Override
+        public Scenario call() {
+          return Scenario.run(scenario).startByKey("BoundaryInterruptingTimerTest").execute();
+        }
+      });
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (Future<Scenario> future: executor.invokeAll(executions)) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    for (ProcessScenario scenario: completing) {
+      verify(scenario, times(1)).hasFinished("EndEventCompleted");
+      verify(scenario, never()).hasFinished("EndEventCanceled");
+    }
+    for (ProcessScenario scenario: canceling) {
+      verify(scenario, never()).hasFinished("EndEventCompleted");
+      verify(scenario, times(1)).hasFinished("EndEventCanceled");
+    }
+
+  }
+
+}
@@ -0,0 +1,93 @@
+package org.camunda.bpm.scenario.test.timers;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.defer.Deferred;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@Deployment(resources = {"org/camunda/bpm/scenario/test/waitstates/UserTaskTest.bpmn"})
+public class DeferredActionsTest extends AbstractTest {
+
+  private final List<String> executed = new ArrayList<String>();
+
+  @Test
+  public void testOrderedByDueTime() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(final TaskDelegate task) {
+        task.defer("PT3M", new Deferred() {
+          @Override
+          public void execute() {
+            executed.add("PT3M");
+            task.complete();
+          }
+        });
+        task.defer("PT1M", record("PT1M (first)"));
+        task.defer("PT2M", record("PT2M"));
+        task.defer("PT1M", record("PT1M (second)"));
+      }
+    });
+
+    Scenario.run(scenario).startByKey("UserTaskTest").execute();
+
+    // due at the same time, in the order they were deferred
+    assertEquals(Arrays.asList("PT1M (first)", "PT1M (second)", "PT2M", "PT3M"), executed);
+    verify(scenario, times(1)).hasFinished("EndEvent");
+
+  }
+
+  @Test
+  public void testOrderedAcrossRunners() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(deferCompletion("PT2M", "scenario"));
+    when(otherScenario.waitsAtUserTask("UserTask")).thenReturn(deferCompletion("PT1M", "otherScenario"));
+
+    Scenario.run(scenario).startByKey("UserTaskTest")
+      .run(otherScenario).startByKey("UserTaskTest")
+      .execute();
+
+    assertEquals(Arrays.asList("otherScenario", "scenario"), executed);
+    verify(scenario, times(1)).hasFinished("EndEvent");
+    verify(otherScenario, times(1)).hasFinished("EndEvent");
+
+  }
+
+  private Deferred record(final String name) {
+    return new Deferred() {
+      @Override
+      public void execute() {
+        executed.add(name);
+      }
+    };
+  }
+
+  private UserTaskAction deferCompletion(final String period, final String name) {
+    return new UserTaskAction() {
+      @Override
+      public void execute(final TaskDelegate task) {
+        task.defer(period, new Deferred() {
+          @Override
+          public void execute() {
+            executed.add(name);
+            task.complete();
+          }
+        });
+      }
+    };
+  }
+
+}
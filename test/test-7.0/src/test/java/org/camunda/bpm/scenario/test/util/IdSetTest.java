@@ -0,0 +1,63 @@
+package org.camunda.bpm.scenario.test.util;
+
+import org.camunda.bpm.scenario.impl.util.IdSet;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class IdSetTest {
+
+  @Test
+  public void testNumericIds() {
+
+    IdSet ids = new IdSet();
+    for (int i = 0; i < 100000; i++) {
+      assertTrue(ids.add(Integer.toString(i)));
+    }
+    for (int i = 0; i < 100000; i++) {
+      assertFalse(ids.add(Integer.toString(i)));
+      assertTrue(ids.contains(Integer.toString(i)));
+    }
+    assertFalse(ids.contains("100000"));
+    assertEquals(100000, ids.size());
+
+  }
+
+  @Test
+  public void testUuids() {
+
+    IdSet ids = new IdSet();
+    List<String> uuids = new ArrayList<String>();
+    for (int i = 0; i < 10000; i++) {
+      uuids.add(UUID.randomUUID().toString());
+      assertTrue(ids.add(uuids.get(i)));
+    }
+    for (String uuid: uuids) {
+      assertFalse(ids.add(uuid));
+      assertTrue(ids.contains(uuid));
+    }
+    assertFalse(ids.contains(UUID.randomUUID().toString()));
+    assertFalse(ids.contains("0"));
+    assertEquals(10000, ids.size());
+
+  }
+
+  @Test
+  public void testPrefixedIds() {
+
+    IdSet ids = new IdSet();
+    assertTrue(ids.add("UserTask:42"));
+    assertTrue(ids.contains("42"));
+    assertFalse(ids.add("42"));
+    assertFalse(ids.contains("43"));
+
+  }
+
+}
@@ -0,0 +1,56 @@
+package org.camunda.bpm.scenario.test.util;
+
+import org.camunda.bpm.scenario.impl.util.Id;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class IdTest {
+
+  @Test
+  public void testNumericIds() {
+
+    // ordered by number, not by string
+    assertTrue(Id.of("9").compareTo(Id.of("10")) < 0);
+    assertTrue(Id.of("10").compareTo(Id.of("9")) > 0);
+    assertEquals(0, Id.of("10").compareTo(Id.of("10")));
+    assertEquals(Id.of("10"), Id.of("10"));
+    assertEquals(Id.of("10").hashCode(), Id.of("10").hashCode());
+
+  }
+
+  @Test
+  public void testTimeBasedUuids() {
+
+    // the later timestamp is in the bits of time_mid, while time_low
+    // makes the earlier uuid the greater string
+    String earlier = "ffffffff-0000-1000-8000-000000000001";
+    String later = "00000000-0001-1000-8000-000000000001";
+
+    assertTrue(earlier.compareTo(later) > 0);
+    assertTrue(Id.of(earlier).compareTo(Id.of(later)) < 0);
+    assertTrue(Id.of(later).compareTo(Id.of(earlier)) > 0);
+    assertEquals(Id.of(later), Id.of(later));
+    assertFalse(Id.of(earlier).equals(Id.of(later)));
+
+  }
+
+  @Test
+  public void testPrefixedIds() {
+
+    assertEquals(Id.of("42"), Id.of("UserTask:42"));
+    assertTrue(Id.of("UserTask:9").compareTo(Id.of("UserTask:10")) < 0);
+
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testUnsupportedIds() {
+
+    Id.of("unsupported");
+
+  }
+
+}
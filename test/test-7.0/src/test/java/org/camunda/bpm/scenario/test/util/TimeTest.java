@@ -0,0 +1,110 @@
+package org.camunda.bpm.scenario.test.util;
+
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.scenario.impl.util.Time;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class TimeTest {
+
+  @Before
+  public void init() {
+    Time.init();
+  }
+
+  @After
+  public void reset() {
+    Time.reset();
+  }
+
+  @Test
+  public void testInitAtHalfSecond() {
+
+    assertEquals(500, Time.get().getTime() % 1000);
+
+  }
+
+  @Test
+  public void testCorrect() {
+
+    assertEquals(1500, Time.correct(1000));
+    assertEquals(1500, Time.correct(1500));
+    assertEquals(-500, Time.correct(-1000));
+    Date corrected = new Date(1500);
+    assertSame(corrected, Time.correct(corrected));
+    assertEquals(new Date(1500), Time.correct(new Date(1000)));
+
+  }
+
+  @Test
+  public void testDateAfterFixedPeriod() {
+
+    long now = Time.get().getTime();
+    assertEquals(new Date(now + 90 * 60 * 1000), Time.dateAfter("PT1H30M"));
+    // parsed before, but still relative to the current time
+    Time.set(new Date(now + 1000));
+    assertEquals(new Date(now + 1000 + 90 * 60 * 1000), Time.dateAfter("PT1H30M"));
+
+  }
+
+  @Test
+  public void testDateAfterCalendarPeriod() {
+
+    Calendar calendar = Calendar.getInstance();
+    calendar.setTime(Time.get());
+    calendar.add(Calendar.MONTH, 1);
+    calendar.add(Calendar.DAY_OF_MONTH, 1);
+    assertEquals(calendar.getTime(), Time.dateAfter("P1M1D"));
+    assertEquals(calendar.getTime(), Time.dateAfter("P1M1D"));
+
+  }
+
+  @Test
+  public void testSetWaitsForClockLentToOtherThread() throws Exception {
+
+    final Date time = new Date(Time.get().getTime() + 60 * 1000);
+    final CountDownLatch lent = new CountDownLatch(1);
+    Thread other = new Thread() {
+      @Override
+      public void run() {
+        Time.acquire();
+        lent.countDown();
+        try {
+          Thread.sleep(100);
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        } finally {
+          Time.release();
+        }
+      }
+    };
+    other.start();
+    lent.await();
+    long waited = Time.waitedNanos();
+    Time.set(time);
+    waited = Time.waitedNanos() - waited;
+    // the engine's clock shows the time set once the other thread is done
+    assertEquals(time, ClockUtil.getCurrentTime());
+    assertTrue(waited >= 50 * 1000 * 1000);
+    other.join();
+
+  }
+
+  @Test(expected=RuntimeException.class)
+  public void testDateAfterInvalidPeriod() {
+
+    Time.dateAfter("invalid");
+
+  }
+
+}
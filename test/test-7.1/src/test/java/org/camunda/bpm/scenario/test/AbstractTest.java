@@ -7,7 +7,13 @@ import org.junit.Rule;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.Map;
+
 /**
+ * The engine of this module is configured with the
+ * ScenarioProcessEnginePlugin, so the scenario metrics know the
+ * commands and statements executed.
+ *
  * @author Martin Schimak <martin.schimak@plexiti.com>
  */
 public class AbstractTest {
@@ -26,4 +32,17 @@ public class AbstractTest {
     MockitoAnnotations.initMocks(this);
   }
 
+  /**
+   * @return how often the statement with the id provided, without its
+   * namespace, was executed according to the statement counts provided
+   */
+  protected static int count(Map<String, Integer> statements, String statement) {
+    int count = 0;
+    for (Map.Entry<String, Integer> entry: statements.entrySet()) {
+      if (entry.getKey().endsWith("." + statement))
+        count += entry.getValue();
+    }
+    return count;
+  }
+
 }
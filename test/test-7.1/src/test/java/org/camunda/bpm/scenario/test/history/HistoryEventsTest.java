@@ -0,0 +1,62 @@
+package org.camunda.bpm.scenario.test.history;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.ScenarioListener;
+import org.camunda.bpm.scenario.ScenarioMetrics;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@Deployment(resources = {"org/camunda/bpm/scenario/test/history/HistoryEventsTest.bpmn"})
+public class HistoryEventsTest extends AbstractTest {
+
+  private int loop = 0;
+
+  @Test
+  public void testTrackedFromEvents() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        task.complete(Collections.<String, Object>singletonMap("leave", ++loop == 3));
+      }
+    });
+
+    final List<Map<String, Integer>> repeated = new ArrayList<Map<String, Integer>>();
+
+    Scenario.run(scenario).startByKey("HistoryEventsTest").listen(new ScenarioListener() {
+      @Override
+      public void executed(ScenarioMetrics.Step step) {
+        repeated.add(new HashMap<String, Integer>(step.getRepeatedStatements()));
+      }
+    }).execute();
+
+    verify(scenario, times(3)).hasStarted("UserTask");
+    verify(scenario, times(3)).hasCompleted("UserTask");
+    verify(scenario, times(3)).hasCompleted("ExclusiveGateway_199xery");
+    verify(scenario, times(1)).hasCompleted("EndEvent");
+
+    // Once the unfinished activity instances are known, the history is
+    // just queried for the waitstates, but no longer for tracking it
+    assertEquals(3, repeated.size());
+    for (Map<String, Integer> statements: repeated.subList(1, repeated.size())) {
+      assertEquals(statements.toString(), 0, count(statements, "selectHistoricActivityInstancesByQueryCriteria"));
+    }
+
+  }
+
+}
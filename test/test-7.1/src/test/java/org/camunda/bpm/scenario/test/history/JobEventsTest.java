@@ -0,0 +1,98 @@
+package org.camunda.bpm.scenario.test.history;
+
+import org.camunda.bpm.engine.delegate.DelegateTask;
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.impl.engine.ScenarioEvents;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@Deployment(resources = {"org/camunda/bpm/scenario/test/history/JobEventsTest.bpmn"})
+public class JobEventsTest extends AbstractTest {
+
+  private ScenarioEvents events;
+
+  @Before
+  public void subscribe() {
+    events = ScenarioEvents.subscribe(rule.getProcessEngine());
+  }
+
+  @After
+  public void unsubscribe() {
+    events.unsubscribe();
+  }
+
+  @Test
+  public void testJobsCommitted() {
+    String processInstanceId = start(false);
+    List<Job> jobs = completeUserTask(processInstanceId);
+    Job job = rule.getManagementService().createJobQuery().processInstanceId(processInstanceId).singleResult();
+    assertEquals(1, jobs.size());
+    assertEquals(job.getId(), jobs.get(0).getId());
+  }
+
+  @Test
+  public void testJobsRolledBack() {
+    String processInstanceId = start(true);
+    List<Job> jobs = completeUserTask(processInstanceId);
+    assertEquals(0, rule.getManagementService().createJobQuery().processInstanceId(processInstanceId).count());
+    assertEquals(0, jobs.size());
+  }
+
+  private String start(boolean rollback) {
+    return rule.getRuntimeService().startProcessInstanceByKey("JobEventsTest",
+        Collections.<String, Object>singletonMap("rollback", rollback)).getId();
+  }
+
+  // Completes the user task while watching the jobs of its process
+  // instance, which creates a job for the asynchronous continuation
+  private List<Job> completeUserTask(String processInstanceId) {
+    Task task = rule.getTaskService().createTaskQuery().processInstanceId(processInstanceId).singleResult();
+    events.watchJobs(processInstanceId);
+    try {
+      rule.getTaskService().complete(task.getId());
+    } catch (IllegalStateException e) {
+      // rolled back by the listener
+    }
+    List<Job> jobs = events.createdJobs(processInstanceId);
+    events.unwatchJobs(processInstanceId);
+    return jobs;
+  }
+
+  /**
+   * Rolls back the transaction completing the task after the engine
+   * flushed its inserts, in case the process variable 'rollback' says so.
+   */
+  public static class RollbackListener implements TaskListener {
+
+    @Override
+    public void notify(DelegateTask task) {
+      if (!(Boolean) task.getVariable("rollback"))
+        return;
+      Context.getCommandContext().getTransactionContext().addTransactionListener(TransactionState.COMMITTING, new TransactionListener() {
+        @Override
+        public void execute(CommandContext commandContext) {
+          throw new IllegalStateException("rollback");
+        }
+      });
+    }
+
+  }
+
+}
@@ -0,0 +1,66 @@
+package org.camunda.bpm.scenario.test.metrics;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.ScenarioListener;
+import org.camunda.bpm.scenario.ScenarioMetrics;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@Deployment(resources = {"org/camunda/bpm/scenario/test/metrics/ContinuationStepsTest.bpmn"})
+public class ContinuationStepsTest extends AbstractTest {
+
+  @Test
+  public void testDrainStopsAtTimerAndWaitstate() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        task.complete();
+      }
+    });
+
+    final List<String> steps = new ArrayList<String>();
+    final List<Map<String, Integer>> repeated = new ArrayList<Map<String, Integer>>();
+
+    ScenarioMetrics metrics = Scenario.run(scenario).startByKey("ContinuationStepsTest").listen(new ScenarioListener() {
+      @Override
+      public void executed(ScenarioMetrics.Step step) {
+        steps.add(step.getType() + ":" + step.getActivityId());
+        repeated.add(new HashMap<String, Integer>(step.getRepeatedStatements()));
+      }
+    }).execute().metrics();
+
+    // the parallel continuations are drained by the first one, but the
+    // timer and the continuation behind it are steps of their own
+    assertEquals(steps.toString(), 5, steps.size());
+    assertEquals("Continuation:AsyncTask", steps.get(0));
+    assertEquals("TimerIntermediateEvent:TimerIntermediateEvent", steps.get(1));
+    assertEquals("TimerJob:TimerIntermediateEvent", steps.get(2));
+    assertEquals("Continuation:AsyncTaskAfterTimer", steps.get(3));
+    assertEquals("UserTask:UserTask", steps.get(4));
+    assertEquals(60 * 60 * 1000, metrics.getTimeJump());
+    verify(scenario, times(1)).hasCompleted("AsyncTaskA");
+    verify(scenario, times(1)).hasCompleted("AsyncTaskB");
+    verify(scenario, times(1)).hasFinished("EndEvent");
+
+    // the jobs are queried once when draining and once when polling
+    // after the step, not again after every continuation drained
+    assertEquals(2, count(repeated.get(0), "selectJobByQueryCriteria"));
+
+  }
+
+}
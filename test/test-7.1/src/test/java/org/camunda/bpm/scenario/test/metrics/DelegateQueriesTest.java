@@ -0,0 +1,88 @@
+package org.camunda.bpm.scenario.test.metrics;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.ScenarioListener;
+import org.camunda.bpm.scenario.ScenarioMetrics;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.defer.Deferred;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@Deployment(resources = {"org/camunda/bpm/scenario/test/metrics/DelegateQueriesTest.bpmn"})
+public class DelegateQueriesTest extends AbstractTest {
+
+  @Test
+  public void testOneQueryPerStep() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        for (int i = 0; i < 3; i++) {
+          assertEquals("User Task", task.getName());
+          assertNull(task.getAssignee());
+          assertNotNull(task.getCreateTime());
+        }
+        task.complete();
+      }
+    });
+
+    final List<Map<String, Integer>> repeated = new ArrayList<Map<String, Integer>>();
+
+    Scenario.run(scenario).startByKey("DelegateQueriesTest").listen(new ScenarioListener() {
+      @Override
+      public void executed(ScenarioMetrics.Step step) {
+        repeated.add(new HashMap<String, Integer>(step.getRepeatedStatements()));
+      }
+    }).execute();
+
+    verify(scenario, times(5)).hasCompleted("UserTask");
+    verify(scenario, times(1)).hasFinished("EndEvent");
+
+    // the tasks of the waitstates losing the ordering are never queried,
+    // the one acted upon just once for the whole step
+    assertEquals(5, repeated.size());
+    for (Map<String, Integer> statements: repeated) {
+      assertEquals(statements.toString(), 0, count(statements, "selectTaskByQueryCriteria"));
+    }
+
+  }
+
+  @Test
+  public void testQueriedAgainInLaterStep() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(final TaskDelegate task) {
+        assertNull(task.getAssignee());
+        rule.getTaskService().setAssignee(task.getId(), "assignee");
+        task.defer("PT1M", new Deferred() {
+          @Override
+          public void execute() {
+            assertEquals("assignee", task.getAssignee());
+            task.complete();
+          }
+        });
+      }
+    });
+
+    Scenario.run(scenario).startByKey("DelegateQueriesTest").execute();
+
+    verify(scenario, times(5)).hasCompleted("UserTask");
+    verify(scenario, times(1)).hasFinished("EndEvent");
+
+  }
+
+}
@@ -0,0 +1,76 @@
+package org.camunda.bpm.scenario.test.metrics;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.ScenarioListener;
+import org.camunda.bpm.scenario.ScenarioMetrics;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.impl.engine.ProcessDefinitions;
+import org.camunda.bpm.scenario.impl.engine.ProcessDefinitions.Activity;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * BPMN models are known to Camunda BPM 7.1 and later, so flow nodes
+ * which never wait for a scenario's action can be skipped.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@Deployment(resources = {"org/camunda/bpm/scenario/test/metrics/PassThroughActivitiesTest.bpmn"})
+public class PassThroughActivitiesTest extends AbstractTest {
+
+  @Test
+  public void testActivities() {
+
+    String processDefinitionId = rule.getRepositoryService().createProcessDefinitionQuery()
+      .processDefinitionKey("PassThroughActivitiesTest").singleResult().getId();
+    ProcessDefinitions definition = ProcessDefinitions.get(rule.getProcessEngine(), processDefinitionId);
+
+    assertEquals(Activity.PASS_THROUGH, definition.getActivity("StartEvent"));
+    assertEquals(Activity.PASS_THROUGH, definition.getActivity("SubProcess"));
+    assertEquals(Activity.WAITSTATE, definition.getActivity("UserTask"));
+    assertEquals(Activity.ASYNC, definition.getActivity("AsyncTask"));
+    assertEquals(Activity.PASS_THROUGH, definition.getActivity("MultiInstanceUserTask#multiInstanceBody"));
+    assertEquals(Activity.WAITSTATE, definition.getActivity("MultiInstanceUserTask"));
+    assertNull(definition.getActivity("UnknownActivity"));
+
+  }
+
+  @Test
+  public void testSteps() {
+
+    when(scenario.waitsAtUserTask(anyString())).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        task.complete();
+      }
+    });
+
+    final List<String> steps = new ArrayList<String>();
+
+    Scenario.run(scenario).startByKey("PassThroughActivitiesTest").listen(new ScenarioListener() {
+      @Override
+      public void executed(ScenarioMetrics.Step step) {
+        steps.add(step.getType() + ":" + step.getActivityId());
+      }
+    }).execute();
+
+    // neither the sub process nor the multi instance body are ever a step
+    assertEquals(4, steps.size());
+    assertEquals("UserTask:UserTask", steps.get(0));
+    assertEquals("Continuation:AsyncTask", steps.get(1));
+    assertEquals("UserTask:MultiInstanceUserTask", steps.get(2));
+    assertEquals("UserTask:MultiInstanceUserTask", steps.get(3));
+    verify(scenario, times(2)).waitsAtUserTask("MultiInstanceUserTask");
+    verify(scenario, times(1)).hasFinished("EndEvent");
+
+  }
+
+}
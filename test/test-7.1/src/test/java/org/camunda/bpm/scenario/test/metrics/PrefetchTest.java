@@ -0,0 +1,91 @@
+package org.camunda.bpm.scenario.test.metrics;
+
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.ScenarioListener;
+import org.camunda.bpm.scenario.ScenarioMetrics;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.impl.engine.ScenarioCommandInterceptor;
+import org.camunda.bpm.scenario.run.ProcessRunner;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@Deployment(resources = {"org/camunda/bpm/scenario/test/metrics/PrefetchTest.bpmn"})
+public class PrefetchTest extends AbstractTest {
+
+  @Test
+  public void testPrefetchTogether() {
+
+    List<Map<String, Integer>> statements = run(3);
+
+    // the second step prefetches the three runners whose process
+    // instances the first step changed with a query of each kind
+    assertEquals(1, count(statements.get(1), "selectHistoricActivityInstanceByNativeQuery"));
+    assertEquals(0, count(statements.get(1), "selectHistoricActivityInstancesByQueryCriteria"));
+    assertEquals(1, count(statements.get(1), "selectJobByQueryCriteria"));
+
+  }
+
+  @Test
+  public void testPrefetchInChunks() {
+
+    List<Map<String, Integer>> statements = run(501);
+
+    // the ids of the process instances are chunked by 500
+    assertEquals(2, count(statements.get(1), "selectHistoricActivityInstanceByNativeQuery"));
+    assertEquals(2, count(statements.get(1), "selectJobByQueryCriteria"));
+
+  }
+
+  // The first action touches all the process instances of the scenario,
+  // the statements executed are collected per step
+  private List<Map<String, Integer>> run(int instances) {
+
+    final boolean[] touched = new boolean[1];
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        if (!touched[0]) {
+          for (ProcessInstance instance: rule.getRuntimeService().createProcessInstanceQuery().processDefinitionKey("PrefetchTest").list()) {
+            rule.getRuntimeService().setVariable(instance.getId(), "touched", true);
+          }
+          touched[0] = true;
+        }
+        task.complete();
+      }
+    });
+
+    final List<Map<String, Integer>> statements = new ArrayList<Map<String, Integer>>();
+
+    ProcessRunner.ExecutableRunner.StartingByKey runner = Scenario.run(scenario).startByKey("PrefetchTest");
+    for (int i = 1; i < instances; i++) {
+      runner = runner.run(scenario).startByKey("PrefetchTest");
+    }
+    runner.listen(new ScenarioListener() {
+      @Override
+      public void executed(ScenarioMetrics.Step step) {
+        statements.add(new HashMap<String, Integer>(ScenarioCommandInterceptor.counter().getExecuted()));
+      }
+    }).execute();
+
+    verify(scenario, times(instances)).hasFinished("EndEvent");
+    assertEquals(instances, statements.size());
+    return statements;
+
+  }
+
+}
@@ -0,0 +1,68 @@
+package org.camunda.bpm.scenario.test.metrics;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.ScenarioListener;
+import org.camunda.bpm.scenario.ScenarioMetrics;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.impl.engine.ProcessDefinitions;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@Deployment(resources = {"org/camunda/bpm/scenario/test/metrics/ContinuationStepsTest.bpmn"})
+public class ProcessDefinitionQueriesTest extends AbstractTest {
+
+  @Test
+  public void testCachedPerEngine() {
+
+    String processDefinitionId = rule.getRepositoryService().createProcessDefinitionQuery()
+      .processDefinitionKey("ContinuationStepsTest").singleResult().getId();
+    ProcessDefinitions definition = ProcessDefinitions.get(rule.getProcessEngine(), processDefinitionId);
+
+    assertSame(definition, ProcessDefinitions.get(rule.getProcessEngine(), processDefinitionId));
+    assertEquals("ContinuationStepsTest", definition.getKey());
+    assertEquals(1, definition.getVersion());
+
+  }
+
+  @Test
+  public void testNotQueriedPerJob() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        task.complete();
+      }
+    });
+
+    final List<Map<String, Integer>> repeated = new ArrayList<Map<String, Integer>>();
+
+    ScenarioMetrics metrics = Scenario.run(scenario).startByKey("ContinuationStepsTest").listen(new ScenarioListener() {
+      @Override
+      public void executed(ScenarioMetrics.Step step) {
+        repeated.add(new HashMap<String, Integer>(step.getRepeatedStatements()));
+      }
+    }).execute().metrics();
+
+    verify(scenario, times(1)).hasFinished("EndEvent");
+
+    // the first step drains three continuations, each of them logged
+    // with the key of the process definition
+    assertEquals(0, count(repeated.get(0), "selectProcessDefinitionsByQueryCriteria"));
+    assertEquals(0, count(metrics.getRepeatedStatements(), "selectProcessDefinitionsByQueryCriteria"));
+
+  }
+
+}
@@ -0,0 +1,85 @@
+package org.camunda.bpm.scenario.test.metrics;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.ScenarioBudget;
+import org.camunda.bpm.scenario.ScenarioMetrics;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.defer.Deferred;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@Deployment(resources = {"org/camunda/bpm/scenario/test/metrics/ScenarioMetricsTest.bpmn"})
+public class ScenarioBudgetTest extends AbstractTest {
+
+  @Before
+  public void deferCompletion() {
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(final TaskDelegate task) {
+        task.defer("PT4M", new Deferred() {
+          @Override
+          public void execute() {
+            task.complete();
+          }
+        });
+      }
+    });
+  }
+
+  @Test
+  public void testWithinBudget() {
+
+    ScenarioMetrics metrics = Scenario.run(scenario).startByKey("ScenarioMetricsTest").execute().metrics();
+
+    Scenario.run(scenario).startByKey("ScenarioMetricsTest")
+      .budget(ScenarioBudget.total().maxCommands(metrics.getCommands()).maxStatements(metrics.getStatements()))
+      .budget(ScenarioBudget.activity("UserTask").maxCommands(metrics.getCommands()).maxStatements(metrics.getStatements()))
+      .execute();
+
+    verify(scenario, times(2)).hasFinished("EndEventCompleted");
+
+  }
+
+  @Test
+  public void testCommandsExceeded() {
+
+    try {
+      Scenario.run(scenario).startByKey("ScenarioMetricsTest")
+        .budget(ScenarioBudget.activity("UserTask").maxCommands(1))
+        .execute();
+      fail("AssertionError expected");
+    } catch (AssertionError e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("activity 'UserTask' exceeded "));
+      assertTrue(e.getMessage(), e.getMessage().contains(" commands (budget: 1)"));
+      assertFalse(e.getMessage(), e.getMessage().contains("statements (budget:"));
+    }
+
+  }
+
+  @Test
+  public void testStatementsExceeded() {
+
+    try {
+      Scenario.run(scenario).startByKey("ScenarioMetricsTest")
+        .budget(ScenarioBudget.total().maxStatements(1))
+        .budget(ScenarioBudget.activity("UserTask").maxStatements(1000))
+        .execute();
+      fail("AssertionError expected");
+    } catch (AssertionError e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("scenario exceeded "));
+      assertTrue(e.getMessage(), e.getMessage().contains(" statements (budget: 1)"));
+      assertFalse(e.getMessage(), e.getMessage().contains("activity 'UserTask' exceeded"));
+    }
+
+  }
+
+}
@@ -0,0 +1,150 @@
+package org.camunda.bpm.scenario.test.metrics;
+
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.ScenarioListener;
+import org.camunda.bpm.scenario.ScenarioMetrics;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.defer.Deferred;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@Deployment(resources = {"org/camunda/bpm/scenario/test/metrics/ScenarioMetricsTest.bpmn"})
+public class ScenarioMetricsTest extends AbstractTest {
+
+  @Test
+  public void testSteps() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(final TaskDelegate task) {
+        task.defer("PT4M", new Deferred() {
+          @Override
+          public void execute() {
+            task.complete();
+          }
+        });
+      }
+    });
+
+    final List<String> steps = new ArrayList<String>();
+    final long[] totals = new long[4];
+
+    ScenarioMetrics metrics = Scenario.run(scenario).startByKey("ScenarioMetricsTest")
+      .listen(new ScenarioListener() {
+        @Override
+        public void executed(ScenarioMetrics.Step step) {
+          steps.add(step.getType() + ":" + step.getActivityId());
+          assertTrue(step.getCommands() > 0);
+          assertTrue(step.getStatements() > 0);
+          assertTrue(step.getEngineNanos() > 0);
+          assertTrue(step.getStatementNanos() > 0);
+          totals[0] += step.getCommands();
+          totals[1] += step.getStatements();
+          totals[2] += step.getEngineNanos();
+          totals[3] += step.getStatementNanos();
+        }
+      }).execute().metrics();
+
+    assertEquals(2, steps.size());
+    assertEquals("UserTask:UserTask", steps.get(0));
+    assertEquals("Deferred:UserTask", steps.get(1));
+
+    // the totals include the polling after the last step
+    assertTrue(metrics.getCommands() >= totals[0]);
+    assertTrue(metrics.getStatements() >= totals[1]);
+    assertTrue(metrics.getEngineNanos() >= totals[2]);
+    assertTrue(metrics.getStatementNanos() >= totals[3]);
+    assertTrue(metrics.getStatements() > metrics.getCommands());
+    assertTrue(metrics.getWallNanos() >= metrics.getEngineNanos());
+    assertEquals(metrics.getWallNanos() - metrics.getActionNanos() - metrics.getEngineNanos(), metrics.getRunnerNanos());
+
+  }
+
+  @Test
+  public void testJobStep() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        // Deal with task but do nothing here
+      }
+    });
+
+    final List<String> steps = new ArrayList<String>();
+
+    ScenarioMetrics metrics = Scenario.run(scenario).startByKey("ScenarioMetricsTest")
+      .listen(new ScenarioListener() {
+        @Override
+        public void executed(ScenarioMetrics.Step step) {
+          steps.add(step.getType() + ":" + step.getActivityId());
+        }
+      }).execute().metrics();
+
+    assertEquals(2, steps.size());
+    assertEquals("UserTask:UserTask", steps.get(0));
+    assertEquals("TimerJob:BoundaryInterruptingTimerEvent", steps.get(1));
+    assertEquals(5 * 60 * 1000, metrics.getTimeJump());
+    verify(scenario, times(1)).hasFinished("EndEventCanceled");
+
+  }
+
+  @Test
+  public void testRepeatedStatements() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        for (int i = 0; i < 3; i++) {
+          rule.getTaskService().createTaskQuery().taskId(task.getId()).singleResult();
+        }
+        task.complete();
+      }
+    });
+
+    final List<Map<String, Integer>> repeated = new ArrayList<Map<String, Integer>>();
+
+    ScenarioMetrics metrics = Scenario.run(scenario).startByKey("ScenarioMetricsTest")
+      .listen(new ScenarioListener() {
+        @Override
+        public void executed(ScenarioMetrics.Step step) {
+          repeated.add(new HashMap<String, Integer>(step.getRepeatedStatements()));
+        }
+      }).execute().metrics();
+
+    assertEquals(1, repeated.size());
+    // the three queries of the action plus the one completing the task
+    assertTrue(count(repeated.get(0), "selectTaskByQueryCriteria") >= 3);
+    assertEquals(count(repeated.get(0), "selectTaskByQueryCriteria"), count(metrics.getRepeatedStatements(), "selectTaskByQueryCriteria"));
+
+  }
+
+  @Test
+  public void testNoRepeatedStatements() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        task.complete();
+      }
+    });
+
+    ScenarioMetrics metrics = Scenario.run(scenario).startByKey("ScenarioMetricsTest").execute().metrics();
+
+    assertEquals(0, count(metrics.getRepeatedStatements(), "selectTaskByQueryCriteria"));
+
+  }
+
+}
@@ -0,0 +1,65 @@
+package org.camunda.bpm.scenario.test.timers;
+
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.camunda.bpm.scenario.test.AbstractTest;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The plugin lends the engine's clock per command, so the scenario
+ * needs to take over the time an action sets outside of commands.
+ *
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+@Deployment(resources = {"org/camunda/bpm/scenario/test/timers/ClockSetByActionTest.bpmn"})
+public class ClockSetByActionTest extends AbstractTest {
+
+  private static final long HOUR = 60 * 60 * 1000;
+
+  @Test
+  public void testClockSetBeforeCommand() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        ClockUtil.setCurrentTime(new Date(ClockUtil.getCurrentTime().getTime() + HOUR));
+        task.complete();
+      }
+    });
+
+    Scenario.run(scenario).startByKey("ClockSetByActionTest").execute();
+
+    HistoricActivityInstance instance = rule.getHistoryService().createHistoricActivityInstanceQuery()
+      .activityId("UserTask").singleResult();
+    assertEquals(HOUR, instance.getEndTime().getTime() - instance.getStartTime().getTime());
+
+  }
+
+  @Test
+  public void testClockSetAfterCommand() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        task.complete();
+        ClockUtil.setCurrentTime(new Date(ClockUtil.getCurrentTime().getTime() + HOUR));
+      }
+    });
+
+    Scenario run = Scenario.run(scenario).startByKey("ClockSetByActionTest").execute();
+
+    verify(scenario, times(1)).hasFinished("EndEvent");
+    assertEquals(HOUR, run.metrics().getTimeJump());
+
+  }
+
+}
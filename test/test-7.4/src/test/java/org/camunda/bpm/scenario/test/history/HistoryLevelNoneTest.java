@@ -0,0 +1,171 @@
+package org.camunda.bpm.scenario.test.history;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngines;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.cfg.ProcessEnginePlugin;
+import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.engine.test.ProcessEngineRule;
+import org.camunda.bpm.scenario.ProcessScenario;
+import org.camunda.bpm.scenario.Scenario;
+import org.camunda.bpm.scenario.ScenarioProcessEnginePlugin;
+import org.camunda.bpm.scenario.act.UserTaskAction;
+import org.camunda.bpm.scenario.defer.Deferred;
+import org.camunda.bpm.scenario.delegate.TaskDelegate;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Martin Schimak <martin.schimak@plexiti.com>
+ */
+public class HistoryLevelNoneTest {
+
+  private static ProcessEngine processEngine = engine("history-none-plugin", true);
+
+  @Rule
+  public ProcessEngineRule rule = new ProcessEngineRule(processEngine);
+
+  @Mock
+  protected ProcessScenario scenario;
+
+  @Mock
+  protected ProcessScenario calledScenario;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+  }
+
+  @AfterClass
+  public static void tearDown() {
+    processEngine.close();
+  }
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/history/HistoryLevelNoneTest.bpmn"})
+  public void testCompleteProcessInstance() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        task.complete();
+      }
+    });
+    when(scenario.runsCallActivity("CallActivity")).thenReturn(Scenario.use(calledScenario));
+    when(calledScenario.waitsAtUserTask("CalledUserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        task.complete();
+      }
+    });
+
+    Scenario.run(scenario).startByKey("HistoryLevelNoneTest").engine(processEngine).execute();
+
+    verify(scenario, times(1)).hasCompleted("UserTask");
+    verify(scenario, times(1)).hasCompleted("CallActivity");
+    verify(scenario, times(1)).hasFinished("EndEvent");
+    verify(calledScenario, times(1)).hasCompleted("CalledUserTask");
+    verify(calledScenario, times(1)).hasFinished("CalledEndEvent");
+
+    assertEquals(0, processEngine.getHistoryService().createHistoricActivityInstanceQuery().count());
+
+  }
+
+  @Test
+  @Deployment(resources = {"org/camunda/bpm/scenario/test/history/HistoryLevelNoneTest.bpmn"})
+  public void testDeferredAction() {
+
+    when(scenario.waitsAtUserTask("UserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(final TaskDelegate task) {
+        task.defer("PT5M", new Deferred() {
+          @Override
+          public void execute() {
+            task.complete();
+          }
+        });
+      }
+    });
+    when(scenario.runsCallActivity("CallActivity")).thenReturn(Scenario.use(calledScenario));
+    when(calledScenario.waitsAtUserTask("CalledUserTask")).thenReturn(new UserTaskAction() {
+      @Override
+      public void execute(TaskDelegate task) {
+        // Deal with task but do nothing here
+      }
+    });
+
+    Scenario.run(scenario).startByKey("HistoryLevelNoneTest").engine(processEngine).execute();
+
+    verify(scenario, times(1)).hasCompleted("UserTask");
+    verify(scenario, times(1)).hasStarted("CallActivity");
+    verify(scenario, never()).hasFinished("CallActivity");
+    verify(calledScenario, times(1)).hasStarted("CalledUserTask");
+    verify(calledScenario, never()).hasFinished("CalledUserTask");
+
+  }
+
+  @Test
+  public void testPluginRemovedFromDatabase() {
+
+    // shares the database created with the plugin
+    engine("history-none-plugin-removed", "history-none-plugin", false).close();
+
+  }
+
+  @Test
+  public void testPluginAddedToDatabase() {
+
+    ProcessEngine processEngine = engine("history-none-plugin-absent", false);
+    try {
+      engine("history-none-plugin-added", "history-none-plugin-absent", true).close();
+    } finally {
+      processEngine.close();
+    }
+
+  }
+
+  @Test(expected=IllegalStateException.class)
+  public void testWithoutPlugin() {
+
+    ProcessEngine processEngine = engine("history-none", false);
+    try {
+      Scenario.run(scenario).startByKey("HistoryLevelNoneTest").engine(processEngine).execute();
+    } finally {
+      processEngine.close();
+    }
+
+  }
+
+  private static ProcessEngine engine(String name, boolean plugin) {
+    return engine(name, name, plugin);
+  }
+
+  private static ProcessEngine engine(String name, String database, boolean plugin) {
+    ProcessEngineConfigurationImpl configuration = (ProcessEngineConfigurationImpl)
+      ProcessEngineConfiguration.createStandaloneInMemProcessEngineConfiguration();
+    configuration.setProcessEngineName(name);
+    configuration.setJdbcUrl("jdbc:h2:mem:" + database);
+    configuration.setHistory(ProcessEngineConfiguration.HISTORY_NONE);
+    configuration.setDatabaseSchemaUpdate(ProcessEngineConfiguration.DB_SCHEMA_UPDATE_TRUE);
+    configuration.setJobExecutorActivate(false);
+    List<ProcessEnginePlugin> plugins = new ArrayList<ProcessEnginePlugin>();
+    if (plugin)
+      plugins.add(new ScenarioProcessEnginePlugin());
+    configuration.setProcessEnginePlugins(plugins);
+    ProcessEngine processEngine = configuration.buildProcessEngine();
+    ProcessEngines.unregister(processEngine);
+    return processEngine;
+  }
+
+}
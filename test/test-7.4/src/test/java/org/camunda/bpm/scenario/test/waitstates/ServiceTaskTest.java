@@ -1,12 +1,15 @@
 package org.camunda.bpm.scenario.test.waitstates;
 
 import org.camunda.bpm.engine.test.Deployment;
+import org.camunda.bpm.scenario.ProcessScenario;
 import org.camunda.bpm.scenario.Scenario;
 import org.camunda.bpm.scenario.act.ServiceTaskAction;
+import org.camunda.bpm.scenario.defer.Deferred;
 import org.camunda.bpm.scenario.delegate.ExternalTaskDelegate;
 import org.camunda.bpm.scenario.test.AbstractTest;
 import org.junit.Test;
 
+import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -82,4 +85,45 @@ public class ServiceTaskTest extends AbstractTest {
 
   }
 
+  @Test
+  public void testFetchOnceForInstancesSharingTopic() {
+
+    final String[] otherId = new String[1];
+
+    ProcessScenario deferringScenario = mock(ProcessScenario.class);
+    when(deferringScenario.waitsAtServiceTask("ServiceTask")).thenReturn(new ServiceTaskAction() {
+      @Override
+      public void execute(final ExternalTaskDelegate externalTask) {
+        externalTask.defer("PT1H", new Deferred() {
+          @Override
+          public void execute() {
+            // a task of the topic which no earlier fetch could have locked
+            otherId[0] = rule.getExternalTaskService().createExternalTaskQuery()
+              .processInstanceId(rule.getRuntimeService().startProcessInstanceByKey("ServiceTaskTest").getId())
+              .singleResult().getId();
+            externalTask.complete();
+          }
+        });
+      }
+    });
+
+    when(scenario.waitsAtServiceTask("ServiceTask")).thenReturn(new ServiceTaskAction() {
+      @Override
+      public void execute(ExternalTaskDelegate externalTask) {
+        externalTask.complete();
+      }
+    });
+
+    Scenario.run(scenario).startByKey("ServiceTaskTest")
+      .run(deferringScenario).startByKey("ServiceTaskTest")
+      .execute();
+
+    verify(scenario, times(1)).hasFinished("EndEvent");
+    verify(deferringScenario, times(1)).hasFinished("EndEvent");
+    // the later completion reuses the lock of the earlier fetch, which
+    // has not yet expired, so the topic is not fetched once more
+    assertNull(rule.getExternalTaskService().createExternalTaskQuery().externalTaskId(otherId[0]).singleResult().getWorkerId());
+
+  }
+
 }